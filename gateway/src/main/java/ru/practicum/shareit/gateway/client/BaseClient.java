@@ -1,18 +1,44 @@
 package ru.practicum.shareit.gateway.client;
 
+import org.apache.hc.core5.http.ConnectionRequestTimeoutException;
 import org.springframework.http.*;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.lang.Nullable;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
 import java.util.List;
 import java.util.Map;
 
 public class BaseClient {
+    private static final int STREAM_BUFFER_SIZE = 8192;
+    private static final long STREAM_RETRY_AFTER_SECONDS = 5;
+    private static final List<String> PASSTHROUGH_HEADERS = List.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.ETAG,
+            HttpHeaders.LOCATION, HttpHeaders.LAST_MODIFIED, HttpHeaders.CACHE_CONTROL, HttpHeaders.RETRY_AFTER,
+            "X-Next-Cursor");
+
     protected RestTemplate rest;
+    private final ResponseCache responseCache;
+    private final RequestCoalescer requestCoalescer;
+    private final DownstreamGuard guard;
+    private final ClientHttpRequestFactory streamRequestFactory;
+    // Первый сегмент пути клиента (users, items, ...): по нему сбрасывается кэш ответов
+    private final String resource;
 
-    public BaseClient(RestTemplate rest) {
+    public BaseClient(RestTemplate rest, ResponseCache responseCache, RequestCoalescer requestCoalescer,
+                      DownstreamGuards guards) {
         this.rest = rest;
+        this.responseCache = responseCache;
+        this.requestCoalescer = requestCoalescer;
+        this.resource = resourceOf(rest.getUriTemplateHandler().expand(""));
+        this.guard = guards.forClient(resource);
+        this.streamRequestFactory = guards.streamRequestFactory();
     }
 
     protected ResponseEntity<Object> get(String path) {
@@ -24,7 +50,45 @@ public class BaseClient {
     }
 
     protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
-        return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
+        return sendGet(path, userId, parameters, false);
+    }
+
+    // Ответ не зависит от пользователя (поиск, подсказки), поэтому одновременные одинаковые запросы
+    // разных пользователей тоже объединяются в один
+    protected ResponseEntity<Object> getShared(String path, Long userId, @Nullable Map<String, Object> parameters) {
+        return sendGet(path, userId, parameters, true);
+    }
+
+    // GET карточки через кэш шлюза: свежий ответ без запроса к серверу, устаревший — условным запросом
+    protected ResponseEntity<Object> getCached(String path, @Nullable Long userId) {
+        URI uri = rest.getUriTemplateHandler().expand(path);
+        ResponseCache.Key key = new ResponseCache.Key(resource, ResponseCache.idOf(path), uri.toString(), userId);
+        long generation = responseCache.generation(key.resource(), key.id());
+        ResponseCache.Entry cached = responseCache.get(key, generation);
+        if (cached != null && responseCache.isFresh(cached)) {
+            responseCache.recordHit();
+            return fromCache(cached);
+        }
+
+        ResponseEntity<byte[]> shareitServerResponse;
+        try {
+            shareitServerResponse = coalescedGet(uri, userId, userId, cached != null ? cached.etag() : null, generation);
+        } catch (HttpStatusCodeException e) {
+            return errorResponse(e);
+        }
+        if (cached != null && shareitServerResponse.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+            responseCache.recordRevalidated();
+            responseCache.put(key, cached.revalidated(generation));
+            return fromCache(cached);
+        }
+
+        responseCache.recordMiss();
+        String etag = shareitServerResponse.getHeaders().getETag();
+        if (shareitServerResponse.getStatusCode() == HttpStatus.OK && etag != null && shareitServerResponse.hasBody()) {
+            responseCache.put(key, new ResponseCache.Entry(etag, shareitServerResponse.getHeaders().getContentType(),
+                    shareitServerResponse.getBody(), generation, System.nanoTime()));
+        }
+        return prepareGatewayResponse(shareitServerResponse);
     }
 
     protected <T> ResponseEntity<Object> post(String path, T body) {
@@ -75,18 +139,91 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
+    // Потоковый ответ сервера (SSE, NDJSON) отдаётся клиенту по мере поступления, без буферизации.
+    // Статус и заголовки сервера известны до начала потока, поэтому ошибки (404 и т.п.) уходят клиенту как есть.
+    protected ResponseEntity<StreamingResponseBody> stream(String path, @Nullable Long userId, MediaType accept) {
+        ClientHttpResponse response;
+        try {
+            ClientHttpRequest request = streamRequestFactory
+                    .createRequest(rest.getUriTemplateHandler().expand(path), HttpMethod.GET);
+            request.getHeaders().setAccept(List.of(accept, MediaType.APPLICATION_JSON));
+            if (userId != null) {
+                request.getHeaders().set("X-Sharer-User-Id", String.valueOf(userId));
+            }
+            response = request.execute();
+        } catch (ConnectionRequestTimeoutException e) {
+            // Пул потоков занят: остальные запросы к серверу это не затрагивает
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(STREAM_RETRY_AFTER_SECONDS))
+                    .build();
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.BAD_GATEWAY).build();
+        }
+        StreamingResponseBody body = output -> {
+            // Закрытие ответа рвёт соединение с сервером, и тот снимает подписку
+            try (response) {
+                InputStream input = response.getBody();
+                byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+                for (int read = input.read(buffer); read != -1; read = input.read(buffer)) {
+                    output.write(buffer, 0, read);
+                    output.flush();
+                }
+            }
+        };
+        try {
+            ResponseEntity.BodyBuilder builder = ResponseEntity.status(response.getStatusCode());
+            MediaType contentType = response.getHeaders().getContentType();
+            if (contentType != null) {
+                builder.contentType(contentType);
+            }
+            return builder.body(body);
+        } catch (IOException e) {
+            response.close();
+            return ResponseEntity.status(HttpStatus.BAD_GATEWAY).build();
+        }
+    }
+
+    private ResponseEntity<Object> sendGet(String path, Long userId, @Nullable Map<String, Object> parameters,
+                                           boolean sharedAcrossUsers) {
+        URI uri = parameters != null
+                ? rest.getUriTemplateHandler().expand(path, parameters)
+                : rest.getUriTemplateHandler().expand(path);
+        long generation = responseCache.generation(resource, ResponseCache.idOf(path));
+        try {
+            return prepareGatewayResponse(
+                    coalescedGet(uri, userId, sharedAcrossUsers ? null : userId, null, generation));
+        } catch (HttpStatusCodeException e) {
+            return errorResponse(e);
+        }
+    }
+
+    private ResponseEntity<byte[]> coalescedGet(URI uri, @Nullable Long userId, @Nullable Long scope,
+                                                @Nullable String ifNoneMatch, long generation) {
+        HttpHeaders headers = defaultHeaders(userId);
+        if (ifNoneMatch != null) {
+            headers.setIfNoneMatch(ifNoneMatch);
+        }
+        RequestCoalescer.Key key = new RequestCoalescer.Key(resource, uri.toString(), scope, ifNoneMatch, generation);
+        return requestCoalescer.execute(key,
+                () -> guard.call(() -> rest.exchange(uri, HttpMethod.GET, new HttpEntity<>(headers), byte[].class)));
+    }
+
+    // Тело ответа сервера передаётся клиенту байтами, без разбора в дерево объектов и повторной сериализации
     private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
         HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
 
-        ResponseEntity<Object> shareitServerResponse;
+        ResponseEntity<byte[]> shareitServerResponse;
         try {
-            if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
-            } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
-            }
+            shareitServerResponse = guard.call(() -> parameters != null
+                    ? rest.exchange(path, method, requestEntity, byte[].class, parameters)
+                    : rest.exchange(path, method, requestEntity, byte[].class));
         } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+            return errorResponse(e);
+        } finally {
+            // Сбрасываем и после ошибки: сервер мог успеть применить изменение
+            if (method != HttpMethod.GET) {
+                responseCache.changed(resource, ResponseCache.idOf(path));
+            }
         }
         return prepareGatewayResponse(shareitServerResponse);
     }
@@ -101,12 +238,44 @@ public class BaseClient {
         return headers;
     }
 
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
+    // Заголовки соединения (Transfer-Encoding, Keep-Alive и т.п.) относятся к участку шлюз-сервер и клиенту не передаются
+    private static HttpHeaders passthroughHeaders(@Nullable HttpHeaders serverHeaders) {
+        HttpHeaders headers = new HttpHeaders();
+        if (serverHeaders != null) {
+            for (String name : PASSTHROUGH_HEADERS) {
+                List<String> values = serverHeaders.get(name);
+                if (values != null) {
+                    headers.put(name, values);
+                }
+            }
+        }
+        return headers;
+    }
+
+    private static ResponseEntity<Object> errorResponse(HttpStatusCodeException e) {
+        return ResponseEntity.status(e.getStatusCode())
+                .headers(passthroughHeaders(e.getResponseHeaders()))
+                .body(e.getResponseBodyAsByteArray());
+    }
+
+    private static ResponseEntity<Object> fromCache(ResponseCache.Entry entry) {
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.ok().eTag(entry.etag());
+        if (entry.contentType() != null) {
+            responseBuilder.contentType(entry.contentType());
         }
+        return responseBuilder.body(entry.body());
+    }
 
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
+    private static String resourceOf(URI uri) {
+        String path = uri.getPath() == null ? "" : uri.getPath();
+        int start = path.startsWith("/") ? 1 : 0;
+        int end = path.indexOf('/', start);
+        return end == -1 ? path.substring(start) : path.substring(start, end);
+    }
+
+    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<byte[]> response) {
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode())
+                .headers(passthroughHeaders(response.getHeaders()));
 
         if (response.hasBody()) {
             return responseBuilder.body(response.getBody());
@@ -115,4 +284,3 @@ public class BaseClient {
         return responseBuilder.build();
     }
 }
-
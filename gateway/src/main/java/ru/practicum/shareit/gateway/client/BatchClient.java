@@ -0,0 +1,229 @@
+package ru.practicum.shareit.gateway.client;
+
+import com.fasterxml.jackson.databind.util.RawValue;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+import ru.practicum.shareit.gateway.dto.BatchRequestDto;
+import ru.practicum.shareit.gateway.dto.BatchResponseDto;
+import ru.practicum.shareit.gateway.dto.State;
+import ru.practicum.shareit.gateway.exceptions.ErrorResponse;
+import ru.practicum.shareit.gateway.exceptions.IllegalArgumentException;
+import ru.practicum.shareit.gateway.exceptions.ServiceUnavailableException;
+
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Пакет GET-запросов одного пользователя: части выполняются одновременно через клиенты шлюза
+// (с их кэшем, объединением запросов и выключателями), у каждой свой таймаут.
+// Поддерживаются только чтения без ограничения частоты — поиск и потоки через пакет недоступны.
+@Service
+@Slf4j
+public class BatchClient {
+    private final List<Route> routes;
+    private final long timeoutMillis;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Counter timeouts;
+
+    public BatchClient(UserClient userClient, ItemClient itemClient, BookingClient bookingClient,
+                       ItemRequestClient itemRequestClient,
+                       @Value("${shareit.batch.timeout:5s}") Duration timeout,
+                       MeterRegistry meterRegistry) {
+        this.routes = List.of(
+                route("/users/(\\d+)", call -> userClient.getUser(call.id())),
+                route("/items", call -> itemClient.getItemsByOwner(call.userId())),
+                route("/items/(\\d+)", call -> itemClient.getItemById(call.id(), call.userId())),
+                route("/bookings", call -> bookingClient.getBookings(call.userId(), call.state(),
+                        call.from(), call.size(), call.param("cursor"))),
+                route("/bookings/owner", call -> bookingClient.getOwnerBookings(call.userId(), call.state(),
+                        call.from(), call.size(), call.param("cursor"))),
+                route("/bookings/(\\d+)", call -> bookingClient.getBooking(call.userId(), call.id())),
+                route("/requests", call -> itemRequestClient.getUserRequests(call.userId())),
+                route("/requests/all", call -> itemRequestClient.getAllRequests(call.userId(),
+                        call.from(), call.size())),
+                route("/requests/(\\d+)", call -> itemRequestClient.getRequestById(call.id(), call.userId())),
+                route("/requests/(\\d+)/matches", call -> itemRequestClient.getMatches(call.id(), call.userId()))
+        );
+        this.timeoutMillis = timeout.toMillis();
+        this.timeouts = Counter.builder("shareit.gateway.batch.timeouts")
+                .description("Части пакетных запросов, не уложившиеся в свой таймаут")
+                .register(meterRegistry);
+    }
+
+    public BatchResponseDto execute(BatchRequestDto batch, long userId) {
+        // Размер пакета проверяется здесь явно: от него зависит число одновременных запросов к серверу
+        List<BatchRequestDto.SubRequest> requests = batch.getRequests();
+        if (requests == null || requests.isEmpty() || requests.size() > BatchRequestDto.MAX_REQUESTS) {
+            throw new IllegalArgumentException("В пакете должно быть от 1 до " + BatchRequestDto.MAX_REQUESTS
+                    + " запросов");
+        }
+        Set<String> ids = new HashSet<>();
+        for (BatchRequestDto.SubRequest request : requests) {
+            if (request == null || request.getId() == null || request.getPath() == null) {
+                throw new IllegalArgumentException("У запроса в пакете должны быть id и path");
+            }
+            if (request.getTimeoutMs() != null && request.getTimeoutMs() <= 0) {
+                throw new IllegalArgumentException("Таймаут должен быть положительным: " + request.getId());
+            }
+            if (!ids.add(request.getId())) {
+                throw new IllegalArgumentException("Повторяющийся идентификатор запроса в пакете: " + request.getId());
+            }
+        }
+        // Каждая часть завершается не позже своего таймаута, поэтому пакет ждёт не дольше самой долгой части
+        List<CompletableFuture<BatchResponseDto.Part>> parts = requests.stream()
+                .map(request -> submit(request, userId))
+                .toList();
+        return new BatchResponseDto(parts.stream().map(CompletableFuture::join).toList());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private CompletableFuture<BatchResponseDto.Part> submit(BatchRequestDto.SubRequest request, long userId) {
+        String id = request.getId();
+        int query = request.getPath().indexOf('?');
+        String path = query == -1 ? request.getPath() : request.getPath().substring(0, query);
+        for (Route route : routes) {
+            Matcher matcher = route.pattern().matcher(path);
+            if (!matcher.matches()) {
+                continue;
+            }
+            MultiValueMap<String, String> parameters = UriComponentsBuilder.newInstance()
+                    .query(query == -1 ? null : request.getPath().substring(query + 1))
+                    .build()
+                    .getQueryParams();
+            Call call = new Call(matcher, parameters, userId);
+            long timeout = request.getTimeoutMs() == null
+                    ? timeoutMillis
+                    : Math.min(request.getTimeoutMs(), timeoutMillis);
+            // Просроченная часть не прерывается: прерывание засчиталось бы выключателю как сбой сервера
+            // и оборвало бы запрос, к которому присоединились другие. Она завершится в фоне
+            // в пределах таймаута своего клиента, а карточка успеет попасть в кэш для следующего пакета.
+            return CompletableFuture.supplyAsync(() -> route.handler().apply(call), executor)
+                    .orTimeout(timeout, TimeUnit.MILLISECONDS)
+                    .handle((response, error) -> error == null ? part(id, response) : failure(id, error));
+        }
+        return CompletableFuture.completedFuture(
+                error(id, HttpStatus.NOT_FOUND, "Путь не поддерживается в пакетном запросе: " + path));
+    }
+
+    private static BatchResponseDto.Part part(String id, ResponseEntity<Object> response) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(response.getHeaders());
+        MediaType contentType = headers.getContentType();
+        headers.remove(HttpHeaders.CONTENT_TYPE);
+
+        Object body = response.getBody();
+        if (body instanceof byte[] bytes) {
+            String text = new String(bytes, StandardCharsets.UTF_8);
+            boolean json = contentType == null || contentType.isCompatibleWith(MediaType.APPLICATION_JSON)
+                    || contentType.getSubtype().endsWith("+json");
+            body = bytes.length == 0 ? null : json ? new RawValue(text) : text;
+        }
+        return new BatchResponseDto.Part(id, response.getStatusCode().value(), headers.toSingleValueMap(), body);
+    }
+
+    private BatchResponseDto.Part failure(String id, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof TimeoutException) {
+            timeouts.increment();
+            return error(id, HttpStatus.GATEWAY_TIMEOUT, "Сервер не ответил вовремя");
+        }
+        if (cause instanceof ServiceUnavailableException e) {
+            return new BatchResponseDto.Part(id, HttpStatus.SERVICE_UNAVAILABLE.value(),
+                    Map.of(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds())),
+                    new ErrorResponse(e.getMessage()));
+        }
+        if (cause instanceof ResourceAccessException e) {
+            return e.getCause() instanceof SocketTimeoutException
+                    ? error(id, HttpStatus.GATEWAY_TIMEOUT, "Сервер не ответил вовремя")
+                    : error(id, HttpStatus.BAD_GATEWAY, "Сервер недоступен");
+        }
+        if (cause instanceof IllegalArgumentException || cause instanceof java.lang.IllegalArgumentException) {
+            return error(id, HttpStatus.BAD_REQUEST, cause.getMessage());
+        }
+        log.error("Ошибка части пакетного запроса {}: {}", id, cause.getMessage(), cause);
+        return error(id, HttpStatus.INTERNAL_SERVER_ERROR, "Внутренняя ошибка сервера");
+    }
+
+    private static BatchResponseDto.Part error(String id, HttpStatus status, String message) {
+        return new BatchResponseDto.Part(id, status.value(), Map.of(), new ErrorResponse(message));
+    }
+
+    private static Route route(String pattern, Function<Call, ResponseEntity<Object>> handler) {
+        return new Route(Pattern.compile(pattern), handler);
+    }
+
+    private record Route(Pattern pattern, Function<Call, ResponseEntity<Object>> handler) {
+    }
+
+    // Параметры части проверяются так же, как в контроллерах соответствующих путей
+    private record Call(Matcher path, MultiValueMap<String, String> parameters, long userId) {
+
+        long id() {
+            return Long.parseLong(path.group(1));
+        }
+
+        String param(String name) {
+            String value = parameters.getFirst(name);
+            return value == null ? null : UriUtils.decode(value, StandardCharsets.UTF_8);
+        }
+
+        State state() {
+            String state = param("state");
+            return State.from(state == null ? "ALL" : state);
+        }
+
+        int from() {
+            int from = intParam("from", 0);
+            if (from < 0) {
+                throw new IllegalArgumentException("from: должно быть больше или равно 0");
+            }
+            return from;
+        }
+
+        int size() {
+            int size = intParam("size", 10);
+            if (size <= 0) {
+                throw new IllegalArgumentException("size: должно быть больше 0");
+            }
+            return size;
+        }
+
+        private int intParam(String name, int defaultValue) {
+            String value = param(name);
+            try {
+                return value == null ? defaultValue : Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(name + ": ожидается целое число");
+            }
+        }
+    }
+}
@@ -3,13 +3,15 @@ package ru.practicum.shareit.gateway.client;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.gateway.dto.BookingDto;
 import ru.practicum.shareit.gateway.dto.State;
 
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
@@ -17,31 +19,26 @@ public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                         ResponseCache responseCache, RequestCoalescer requestCoalescer,
+                         DownstreamGuards guards) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
-                        .build()
+                        .requestFactory(() -> guards.requestFactory(API_PREFIX.substring(1)))
+                        .build(),
+                responseCache,
+                requestCoalescer,
+                guards
         );
     }
 
-    public ResponseEntity<Object> getBookings(long userId, State state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
-                "state", state.name(),
-                "from", from,
-                "size", size
-        );
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+    public ResponseEntity<Object> getBookings(long userId, State state, Integer from, Integer size, String cursor) {
+        return get(listPath("", cursor), userId, listParameters(state, from, size, cursor));
     }
 
-    public ResponseEntity<Object> getOwnerBookings(long userId, State state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
-                "state", state.name(),
-                "from", from,
-                "size", size
-        );
-        return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
+    public ResponseEntity<Object> getOwnerBookings(long userId, State state, Integer from, Integer size, String cursor) {
+        return get(listPath("/owner", cursor), userId, listParameters(state, from, size, cursor));
     }
 
     public ResponseEntity<Object> bookItem(long userId, BookingDto requestDto) {
@@ -55,8 +52,28 @@ public class BookingClient extends BaseClient {
         return patch("/" + bookingId + "?approved={approved}", userId, parameters, null);
     }
 
+    public ResponseEntity<StreamingResponseBody> subscribe(long userId) {
+        return stream("/subscribe", userId, MediaType.TEXT_EVENT_STREAM);
+    }
+
     public ResponseEntity<Object> getBooking(long userId, Long bookingId) {
         return get("/" + bookingId, userId);
     }
-}
 
+    private static String listPath(String path, String cursor) {
+        String query = "?state={state}&from={from}&size={size}";
+        return path + query + (cursor != null ? "&cursor={cursor}" : "");
+    }
+
+    private static Map<String, Object> listParameters(State state, Integer from, Integer size, String cursor) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
+                "state", state.name(),
+                "from", from,
+                "size", size
+        ));
+        if (cursor != null) {
+            parameters.put("cursor", cursor);
+        }
+        return parameters;
+    }
+}
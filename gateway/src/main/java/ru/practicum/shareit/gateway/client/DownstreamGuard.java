@@ -0,0 +1,238 @@
+package ru.practicum.shareit.gateway.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import ru.practicum.shareit.gateway.exceptions.ServiceUnavailableException;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+// Изоляция одного клиента шлюза: ограничение одновременных запросов к серверу (bulkhead)
+// и автоматический выключатель. После failure-threshold сбоев подряд (ошибка ввода-вывода, таймаут, 5xx)
+// запросы отклоняются сразу на open-for, затем пропускается half-open-probes пробных запросов:
+// все успешны — выключатель замыкается, любой сбой — снова размыкается.
+public class DownstreamGuard {
+
+    public enum State {
+        CLOSED, HALF_OPEN, OPEN
+    }
+
+    private final String client;
+    private final Semaphore bulkhead;
+    private final long maxWaitNanos;
+    private final int failureThreshold;
+    private final long openForNanos;
+    private final int halfOpenProbes;
+
+    // Состояние выключателя, счётчик сбоев и бюджет пробных запросов меняются вместе одним CAS,
+    // поэтому запрос не может увидеть HALF_OPEN со счётчиками прошлого состояния
+    private final AtomicReference<Circuit> circuit = new AtomicReference<>(Circuit.closed());
+
+    private final MeterRegistry meterRegistry;
+    private final Counter bulkheadRejections;
+    private final Counter circuitRejections;
+
+    public DownstreamGuard(String client, int maxConcurrent, Duration maxWait, int failureThreshold,
+                           Duration openFor, int halfOpenProbes, MeterRegistry meterRegistry) {
+        this.client = client;
+        this.bulkhead = new Semaphore(maxConcurrent);
+        this.maxWaitNanos = maxWait.toNanos();
+        this.failureThreshold = failureThreshold;
+        this.openForNanos = openFor.toNanos();
+        this.halfOpenProbes = halfOpenProbes;
+        this.meterRegistry = meterRegistry;
+        this.bulkheadRejections = rejections("bulkhead");
+        this.circuitRejections = rejections("circuit-open");
+        Gauge.builder("shareit.gateway.circuit.state", circuit, c -> c.get().state().ordinal())
+                .description("Состояние выключателя: 0 — замкнут, 1 — пробные запросы, 2 — разомкнут")
+                .tag("client", client)
+                .register(meterRegistry);
+        Gauge.builder("shareit.gateway.bulkhead.available", bulkhead, Semaphore::availablePermits)
+                .description("Свободные места для одновременных запросов к серверу")
+                .tag("client", client)
+                .register(meterRegistry);
+    }
+
+    public State state() {
+        return circuit.get().state();
+    }
+
+    public <T> T call(Supplier<T> upstreamCall) {
+        Circuit probe = acquirePermission();
+        boolean acquired;
+        try {
+            acquired = bulkhead.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            // Пробный запрос не состоялся — возвращаем его, иначе выключатель застрянет в HALF_OPEN
+            if (probe != null) {
+                giveBackProbe(probe);
+            }
+            bulkheadRejections.increment();
+            throw new ServiceUnavailableException("Сервер перегружен, повторите позже", 1);
+        }
+
+        try {
+            T result = upstreamCall.get();
+            onSuccess(probe);
+            return result;
+        } catch (ResourceAccessException | HttpServerErrorException e) {
+            onFailure();
+            throw e;
+        } catch (RuntimeException e) {
+            // Ответы 4xx означают, что сервер работает
+            onSuccess(probe);
+            throw e;
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    // Состояние, в котором пропущен пробный запрос, или null для обычного запроса
+    private Circuit acquirePermission() {
+        while (true) {
+            Circuit current = circuit.get();
+            switch (current.state()) {
+                case CLOSED -> {
+                    return null;
+                }
+                case OPEN -> {
+                    long openFor = current.openedAt() + openForNanos - System.nanoTime();
+                    if (openFor > 0) {
+                        reject(openFor);
+                    }
+                    Circuit next = current.halfOpen(halfOpenProbes - 1);
+                    if (update(current, next)) {
+                        return next;
+                    }
+                }
+                case HALF_OPEN -> {
+                    if (current.probesLeft() <= 0) {
+                        reject(openForNanos);
+                    }
+                    if (update(current, current.withProbesLeft(current.probesLeft() - 1))) {
+                        return current;
+                    }
+                }
+            }
+        }
+    }
+
+    // Только в тот же период пробных запросов, в котором он был взят
+    private void giveBackProbe(Circuit probe) {
+        while (true) {
+            Circuit current = circuit.get();
+            if (current.state() != State.HALF_OPEN || current.openedAt() != probe.openedAt()
+                    || update(current, current.withProbesLeft(current.probesLeft() + 1))) {
+                return;
+            }
+        }
+    }
+
+    private void onSuccess(Circuit probe) {
+        while (true) {
+            Circuit current = circuit.get();
+            Circuit next;
+            if (current.state() == State.CLOSED) {
+                if (current.failures() == 0) {
+                    return;
+                }
+                next = Circuit.closed();
+            } else if (current.state() == State.HALF_OPEN && probe != null
+                    && current.openedAt() == probe.openedAt()) {
+                int successes = current.probeSuccesses() + 1;
+                next = successes >= halfOpenProbes ? Circuit.closed() : current.withProbeSuccesses(successes);
+            } else {
+                // Запрос, начатый до размыкания или в прошлом периоде пробных запросов, ничего не решает
+                return;
+            }
+            if (update(current, next)) {
+                return;
+            }
+        }
+    }
+
+    private void onFailure() {
+        while (true) {
+            Circuit current = circuit.get();
+            Circuit next;
+            if (current.state() == State.CLOSED && current.failures() + 1 < failureThreshold) {
+                next = current.withFailures(current.failures() + 1);
+            } else if (current.state() != State.OPEN) {
+                next = Circuit.open(System.nanoTime());
+            } else {
+                return;
+            }
+            if (update(current, next)) {
+                return;
+            }
+        }
+    }
+
+    private boolean update(Circuit current, Circuit next) {
+        if (!circuit.compareAndSet(current, next)) {
+            return false;
+        }
+        if (current.state() != next.state()) {
+            Counter.builder("shareit.gateway.circuit.transitions")
+                    .description("Переходы выключателя между состояниями")
+                    .tag("client", client)
+                    .tag("from", current.state().name())
+                    .tag("to", next.state().name())
+                    .register(meterRegistry)
+                    .increment();
+        }
+        return true;
+    }
+
+    private void reject(long retryAfterNanos) {
+        circuitRejections.increment();
+        throw new ServiceUnavailableException("Сервер временно недоступен, повторите позже",
+                Math.max(1, TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos + TimeUnit.SECONDS.toNanos(1) - 1)));
+    }
+
+    private Counter rejections(String reason) {
+        return Counter.builder("shareit.gateway.rejected")
+                .description("Запросы, отклонённые шлюзом без обращения к серверу")
+                .tag("client", client)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    // openedAt — момент последнего размыкания, он же отличает один период пробных запросов от другого
+    private record Circuit(State state, int failures, int probesLeft, int probeSuccesses, long openedAt) {
+
+        static Circuit closed() {
+            return new Circuit(State.CLOSED, 0, 0, 0, 0);
+        }
+
+        static Circuit open(long openedAt) {
+            return new Circuit(State.OPEN, 0, 0, 0, openedAt);
+        }
+
+        Circuit halfOpen(int probes) {
+            return new Circuit(State.HALF_OPEN, 0, probes, 0, openedAt);
+        }
+
+        Circuit withFailures(int count) {
+            return new Circuit(state, count, probesLeft, probeSuccesses, openedAt);
+        }
+
+        Circuit withProbesLeft(int count) {
+            return new Circuit(state, failures, count, probeSuccesses, openedAt);
+        }
+
+        Circuit withProbeSuccesses(int count) {
+            return new Circuit(state, failures, probesLeft, count, openedAt);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package ru.practicum.shareit.gateway.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Настройки изоляции клиентов шлюза: shareit-server.clients.<клиент>.*, недостающее берётся из
+// shareit-server.clients.default.*. Клиент — первый сегмент пути: users, items, bookings, requests.
+@Component
+public class DownstreamGuards {
+    private static final String PREFIX = "shareit-server.clients.";
+
+    private final Environment environment;
+    private final CloseableHttpClient httpClient;
+    private final CloseableHttpClient streamHttpClient;
+    private final MeterRegistry meterRegistry;
+    private final Duration connectionRequestTimeout;
+    private final Map<String, DownstreamGuard> guards = new ConcurrentHashMap<>();
+
+    public DownstreamGuards(Environment environment,
+                            @Qualifier("shareitServerHttpClient") CloseableHttpClient httpClient,
+                            @Qualifier("shareitServerStreamHttpClient") CloseableHttpClient streamHttpClient,
+                            MeterRegistry meterRegistry,
+                            @Value("${shareit-server.http.connection-request-timeout:5s}")
+                            Duration connectionRequestTimeout) {
+        this.environment = environment;
+        this.httpClient = httpClient;
+        this.streamHttpClient = streamHttpClient;
+        this.meterRegistry = meterRegistry;
+        this.connectionRequestTimeout = connectionRequestTimeout;
+    }
+
+    public DownstreamGuard forClient(String client) {
+        return guards.computeIfAbsent(client, name -> new DownstreamGuard(name,
+                setting(name, "max-concurrent", Integer.class, 100),
+                setting(name, "max-wait", Duration.class, Duration.ofMillis(50)),
+                setting(name, "failure-threshold", Integer.class, 5),
+                setting(name, "open-for", Duration.class, Duration.ofSeconds(10)),
+                setting(name, "half-open-probes", Integer.class, 3),
+                meterRegistry));
+    }
+
+    // Фабрика запросов клиента со своим таймаутом ответа поверх общего пула соединений
+    public ClientHttpRequestFactory requestFactory(String client) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.of(connectionRequestTimeout))
+                .setResponseTimeout(Timeout.of(setting(client, "timeout", Duration.class, Duration.ofSeconds(10))))
+                .build();
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        requestFactory.setHttpContextFactory((method, uri) -> {
+            HttpClientContext context = HttpClientContext.create();
+            context.setRequestConfig(requestConfig);
+            return context;
+        });
+        return requestFactory;
+    }
+
+    // Потоки событий живут долго и молчат до пинга, поэтому идут со своим пулом соединений и таймаутом
+    // клиента потоков, мимо лимитов max-concurrent: их ограничивает размер пула потоков
+    public ClientHttpRequestFactory streamRequestFactory() {
+        return new HttpComponentsClientHttpRequestFactory(streamHttpClient);
+    }
+
+    private <T> T setting(String client, String key, Class<T> type, T defaultValue) {
+        T value = environment.getProperty(PREFIX + client + "." + key, type);
+        return value != null ? value : environment.getProperty(PREFIX + "default." + key, type, defaultValue);
+    }
+}
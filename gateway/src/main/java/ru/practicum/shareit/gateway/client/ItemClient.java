@@ -4,7 +4,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.gateway.dto.CommentDto;
@@ -17,12 +16,17 @@ public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                      ResponseCache responseCache, RequestCoalescer requestCoalescer,
+                      DownstreamGuards guards) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
-                        .build()
+                        .requestFactory(() -> guards.requestFactory(API_PREFIX.substring(1)))
+                        .build(),
+                responseCache,
+                requestCoalescer,
+                guards
         );
     }
 
@@ -35,18 +39,28 @@ public class ItemClient extends BaseClient {
     }
 
     public ResponseEntity<Object> getItemById(Long itemId, Long userId) {
-        return get("/" + itemId, userId);
+        return getCached("/" + itemId, userId);
     }
 
     public ResponseEntity<Object> getItemsByOwner(Long ownerId) {
         return get("", ownerId);
     }
 
-    public ResponseEntity<Object> searchItems(String text, Long userId) {
+    public ResponseEntity<Object> searchItems(String text, Long userId, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
-                "text", text
+                "text", text,
+                "from", from,
+                "size", size
         );
-        return get("/search?text={text}", userId, parameters);
+        return getShared("/search?text={text}&from={from}&size={size}", userId, parameters);
+    }
+
+    public ResponseEntity<Object> suggestNames(String prefix, Long userId, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "prefix", prefix,
+                "size", size
+        );
+        return getShared("/suggest?prefix={prefix}&size={size}", userId, parameters);
     }
 
     public ResponseEntity<Object> addComment(Long itemId, Long authorId, CommentDto commentDto) {
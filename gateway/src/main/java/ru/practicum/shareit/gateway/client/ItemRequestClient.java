@@ -3,9 +3,10 @@ package ru.practicum.shareit.gateway.client;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.gateway.dto.ItemRequestCreateDto;
 
@@ -16,12 +17,17 @@ public class ItemRequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
     @Autowired
-    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                             ResponseCache responseCache, RequestCoalescer requestCoalescer,
+                             DownstreamGuards guards) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
-                        .build()
+                        .requestFactory(() -> guards.requestFactory(API_PREFIX.substring(1)))
+                        .build(),
+                responseCache,
+                requestCoalescer,
+                guards
         );
     }
 
@@ -41,7 +47,15 @@ public class ItemRequestClient extends BaseClient {
         return get("/all?from={from}&size={size}", userId, parameters);
     }
 
+    public ResponseEntity<StreamingResponseBody> streamRequests(Long userId) {
+        return stream("/stream", userId, MediaType.TEXT_EVENT_STREAM);
+    }
+
+    public ResponseEntity<Object> getMatches(Long requestId, Long userId) {
+        return get("/" + requestId + "/matches", userId);
+    }
+
     public ResponseEntity<Object> getRequestById(Long requestId, Long userId) {
-        return get("/" + requestId, userId);
+        return getCached("/" + requestId, userId);
     }
 }
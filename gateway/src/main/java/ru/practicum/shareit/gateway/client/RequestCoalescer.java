@@ -0,0 +1,62 @@
+package ru.practicum.shareit.gateway.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+// Одинаковые GET, пришедшие одновременно, делят один запрос к серверу и одно тело ответа (single-flight).
+// Первый запрос идёт на сервер, остальные ждут его результат — ответ или ошибку.
+@Component
+public class RequestCoalescer {
+    private final ConcurrentMap<Key, CompletableFuture<ResponseEntity<byte[]>>> inFlight = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public RequestCoalescer(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public ResponseEntity<byte[]> execute(Key key, Supplier<ResponseEntity<byte[]>> call) {
+        CompletableFuture<ResponseEntity<byte[]>> own = new CompletableFuture<>();
+        CompletableFuture<ResponseEntity<byte[]>> leader = inFlight.putIfAbsent(key, own);
+        if (leader != null) {
+            Counter.builder("shareit.gateway.coalesced")
+                    .description("GET, объединённые с уже идущим одинаковым запросом к серверу")
+                    .tag("client", key.resource())
+                    .register(meterRegistry)
+                    .increment();
+            try {
+                return leader.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        try {
+            ResponseEntity<byte[]> response = call.get();
+            own.complete(response);
+            return response;
+        } catch (RuntimeException | Error e) {
+            // Ждущие запросы должны получить ошибку при любом исходе, иначе они зависнут на join()
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    // scope — пользователь, от которого зависит ответ, или null, если ответ у всех одинаковый.
+    // generation — поколение ресурса в кэше ответов: после изменения через шлюз новые запросы
+    // не присоединяются к начатым до него и видят своё изменение.
+    public record Key(String resource, String uri, Long scope, String ifNoneMatch, long generation) {
+    }
+}
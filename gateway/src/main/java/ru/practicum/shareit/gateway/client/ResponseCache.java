@@ -0,0 +1,132 @@
+package ru.practicum.shareit.gateway.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Кэш ответов сервера на GET карточек по пути с параметрами и пользователю. Ограничен объёмом в байтах.
+// Свежий ответ отдаётся без обращения к серверу, устаревший переспрашивается с If-None-Match.
+// Изменение через клиенты шлюза сбрасывает карточку изменённого ресурса и зависимые ресурсы целиком.
+@Component
+public class ResponseCache {
+    private static final int ENTRY_OVERHEAD_BYTES = 128;
+    // Какие ещё ресурсы меняются вместе с ресурсом: вещи видны в ответах на запросы,
+    // удаление пользователя затрагивает его вещи и запросы. Какая именно карточка зависимого ресурса
+    // изменилась, шлюз не знает, поэтому сбрасывается весь ресурс. Бронирования сюда не входят:
+    // последнее и следующее бронирование в карточке вещи и так сдвигаются со временем без изменений,
+    // их устаревание ограничено fresh-for, а сброс всех вещей на каждое бронирование обнулил бы кэш.
+    private static final Map<String, List<String>> AFFECTED = Map.of(
+            "users", List.of("items", "requests"),
+            "items", List.of("requests")
+    );
+
+    private final Cache<Key, Entry> cache;
+    private final long freshForNanos;
+    // Поколения ресурса ("items") и отдельной карточки ("items/5") растут при изменениях.
+    // Ответ, полученный до изменения, считается устаревшим
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter revalidated;
+    private final Counter misses;
+
+    public ResponseCache(@Value("${shareit-server.cache.max-bytes:33554432}") long maxBytes,
+                         @Value("${shareit-server.cache.ttl:10m}") Duration ttl,
+                         @Value("${shareit-server.cache.fresh-for:2s}") Duration freshFor,
+                         MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Key key, Entry entry) -> ENTRY_OVERHEAD_BYTES + 2 * key.uri().length() + entry.body().length)
+                .expireAfterWrite(ttl)
+                .build();
+        this.freshForNanos = freshFor.toNanos();
+        this.hits = counter(meterRegistry, "hit");
+        this.revalidated = counter(meterRegistry, "revalidated");
+        this.misses = counter(meterRegistry, "miss");
+    }
+
+    // Идентификатор карточки — первый сегмент пути после ресурса, если он числовой: "/5/comment" -> "5"
+    public static String idOf(String path) {
+        int start = path.startsWith("/") ? 1 : 0;
+        int end = start;
+        while (end < path.length() && Character.isDigit(path.charAt(end))) {
+            end++;
+        }
+        boolean wholeSegment = end == path.length() || path.charAt(end) == '/' || path.charAt(end) == '?';
+        return end > start && wholeSegment ? path.substring(start, end) : null;
+    }
+
+    // Оба счётчика только растут, поэтому их сумма меняется при любом изменении ресурса или карточки
+    public long generation(String resource, String id) {
+        long generation = generationOf(resource).get();
+        return id != null ? generation + generationOf(resource + "/" + id).get() : generation;
+    }
+
+    // Запись текущего поколения ресурса; записи прошлых поколений не возвращаются
+    public Entry get(Key key, long generation) {
+        Entry entry = cache.getIfPresent(key);
+        return entry != null && entry.generation() == generation ? entry : null;
+    }
+
+    public boolean isFresh(Entry entry) {
+        return System.nanoTime() - entry.validatedAt() < freshForNanos;
+    }
+
+    public void put(Key key, Entry entry) {
+        if (generation(key.resource(), key.id()) == entry.generation()) {
+            cache.put(key, entry);
+        }
+    }
+
+    // Создание (без идентификатора) не меняет существующих карточек ресурса, только зависимые ресурсы
+    public void changed(String resource, String id) {
+        if (id != null) {
+            generationOf(resource + "/" + id).incrementAndGet();
+        }
+        for (String affected : AFFECTED.getOrDefault(resource, List.of())) {
+            generationOf(affected).incrementAndGet();
+        }
+    }
+
+    public void recordHit() {
+        hits.increment();
+    }
+
+    public void recordRevalidated() {
+        revalidated.increment();
+    }
+
+    public void recordMiss() {
+        misses.increment();
+    }
+
+    private AtomicLong generationOf(String resource) {
+        return generations.computeIfAbsent(resource, r -> new AtomicLong());
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("shareit.gateway.cache")
+                .description("Ответы на GET из кэша шлюза: без запроса к серверу, после 304 и с полным ответом")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    public record Key(String resource, String id, String uri, Long userId) {
+    }
+
+    public record Entry(String etag, MediaType contentType, byte[] body, long generation, long validatedAt) {
+
+        public Entry revalidated(long currentGeneration) {
+            return new Entry(etag, contentType, body, currentGeneration, System.nanoTime());
+        }
+    }
+}
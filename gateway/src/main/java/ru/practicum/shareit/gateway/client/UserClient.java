@@ -3,23 +3,32 @@ package ru.practicum.shareit.gateway.client;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.gateway.dto.UserDto;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @Service
 public class UserClient extends BaseClient {
     private static final String API_PREFIX = "/users";
 
     @Autowired
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                      ResponseCache responseCache, RequestCoalescer requestCoalescer,
+                      DownstreamGuards guards) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
-                        .build()
+                        .requestFactory(() -> guards.requestFactory(API_PREFIX.substring(1)))
+                        .build(),
+                responseCache,
+                requestCoalescer,
+                guards
         );
     }
 
@@ -32,11 +41,28 @@ public class UserClient extends BaseClient {
     }
 
     public ResponseEntity<Object> getUser(Long userId) {
-        return get("/" + userId);
+        return getCached("/" + userId, null);
+    }
+
+    public ResponseEntity<StreamingResponseBody> getAllUsers() {
+        return stream("", null, MediaType.APPLICATION_JSON);
+    }
+
+    public ResponseEntity<Object> getUsersPage(Integer from, Integer size, String cursor) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
+                "from", from,
+                "size", size
+        ));
+        String path = "?from={from}&size={size}";
+        if (cursor != null) {
+            parameters.put("cursor", cursor);
+            path += "&cursor={cursor}";
+        }
+        return get(path, null, parameters);
     }
 
-    public ResponseEntity<Object> getAllUsers() {
-        return get("");
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        return stream("/export", null, MediaType.APPLICATION_NDJSON);
     }
 
     public ResponseEntity<Object> deleteUser(Long userId) {
@@ -0,0 +1,90 @@
+package ru.practicum.shareit.gateway.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import ru.practicum.shareit.gateway.exceptions.TooManyRequestsException;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Ограничение частоты запросов одного пользователя (X-Sharer-User-Id, без него — адрес клиента)
+// к отдельным методам контроллеров. Бакеты хранятся в ограниченном кэше и удаляются после простоя.
+@Component
+public class RateLimitInterceptor implements HandlerInterceptor {
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final RateLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Cache<BucketKey, TokenBucket> buckets;
+    // Лимит метода ищется по имени один раз; методы без лимита хранятся с limit = null
+    private final Map<Method, Route> routes = new ConcurrentHashMap<>();
+
+    public RateLimitInterceptor(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        // Простой бакета дольше idle-timeout полностью его пополняет, так что удаление не меняет лимита,
+        // если idle-timeout больше времени пополнения самого медленного маршрута
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.maxBuckets())
+                .expireAfterAccess(properties.idleTimeout())
+                .build();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Асинхронная отправка (SSE, выгрузка) повторно проходит перехватчики — второй раз не считаем
+        if (!properties.enabled() || request.getDispatcherType() != DispatcherType.REQUEST
+                || !(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        Route route = routes.computeIfAbsent(handlerMethod.getMethod(), method -> route(handlerMethod));
+        if (route.limit() == null) {
+            return true;
+        }
+
+        String client = request.getHeader("X-Sharer-User-Id");
+        if (client == null) {
+            client = request.getRemoteAddr();
+        }
+        long now = System.nanoTime();
+        long wait = buckets.get(new BucketKey(route.name(), client), key -> new TokenBucket(now))
+                .tryAcquire(now, route.intervalNanos(), route.burstNanos());
+        if (wait > 0) {
+            route.rejected().increment();
+            throw new TooManyRequestsException("Слишком много запросов, повторите позже",
+                    (wait + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND);
+        }
+        return true;
+    }
+
+    private Route route(HandlerMethod handlerMethod) {
+        String name = handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName();
+        RateLimitProperties.Limit limit = properties.routes().get(name);
+        if (limit == null) {
+            return new Route(name, null, 0, 0, null);
+        }
+        long intervalNanos = (long) (NANOS_PER_SECOND / limit.perSecond());
+        Counter rejected = Counter.builder("shareit.gateway.rate-limited")
+                .description("Запросы, отклонённые ограничением частоты")
+                .tag("route", name)
+                .register(meterRegistry);
+        return new Route(name, limit, intervalNanos, intervalNanos * limit.capacity(), rejected);
+    }
+
+    private record Route(String name, RateLimitProperties.Limit limit, long intervalNanos, long burstNanos,
+                         Counter rejected) {
+    }
+
+    private record BucketKey(String route, String client) {
+    }
+}
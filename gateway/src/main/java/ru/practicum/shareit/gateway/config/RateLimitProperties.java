@@ -0,0 +1,23 @@
+package ru.practicum.shareit.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+// Лимиты запросов на пользователя по методам контроллеров, ключ — "ItemController.searchItems".
+// capacity — сколько запросов можно сделать подряд, per-second — скорость пополнения.
+@ConfigurationProperties("shareit.rate-limit")
+public record RateLimitProperties(@DefaultValue("true") boolean enabled,
+                                  @DefaultValue("100000") long maxBuckets,
+                                  @DefaultValue("10m") Duration idleTimeout,
+                                  Map<String, Limit> routes) {
+
+    public RateLimitProperties {
+        routes = routes == null ? Map.of() : Map.copyOf(routes);
+    }
+
+    public record Limit(int capacity, double perSecond) {
+    }
+}
@@ -1,19 +1,126 @@
 package ru.practicum.shareit.gateway.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.ConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
-import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+
+// Один пул соединений с сервером на все клиенты шлюза: все они ходят на один хост,
+// поэтому лимит на маршрут фактически равен общему лимиту. Потоки (SSE, выгрузки) держат соединение
+// минутами и идут через отдельный пул, иначе несколько сотен подписчиков заняли бы соединения обычных запросов.
 @Configuration
 public class RestTemplateConfig {
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager shareitServerConnectionManager(
+            @Value("${shareit-server.http.max-total:500}") int maxTotal,
+            @Value("${shareit-server.http.max-per-route:500}") int maxPerRoute,
+            @Value("${shareit-server.http.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${shareit-server.http.validate-after-inactivity:2s}") Duration validateAfterInactivity,
+            @Value("${shareit-server.http.time-to-live:5m}") Duration timeToLive) {
+        return connectionManager(maxTotal, maxPerRoute, connectTimeout, validateAfterInactivity, timeToLive);
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient shareitServerHttpClient(
+            @Qualifier("shareitServerConnectionManager") PoolingHttpClientConnectionManager connectionManager,
+            @Value("${shareit-server.http.connection-request-timeout:5s}") Duration connectionRequestTimeout,
+            @Value("${shareit-server.http.response-timeout:60s}") Duration responseTimeout,
+            @Value("${shareit-server.http.keep-alive:15s}") Duration keepAlive,
+            @Value("${shareit-server.http.max-idle:30s}") Duration maxIdle) {
+        return httpClient(connectionManager, connectionRequestTimeout, responseTimeout, keepAlive, maxIdle);
+    }
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager shareitServerStreamConnectionManager(
+            @Value("${shareit-server.http.streams.max-total:1000}") int maxTotal,
+            @Value("${shareit-server.http.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${shareit-server.http.validate-after-inactivity:2s}") Duration validateAfterInactivity,
+            @Value("${shareit-server.http.time-to-live:5m}") Duration timeToLive) {
+        return connectionManager(maxTotal, maxTotal, connectTimeout, validateAfterInactivity, timeToLive);
+    }
+
+    // Свободного соединения для потока ждём недолго: переполненный пул означает лимит подписчиков, а не всплеск
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient shareitServerStreamHttpClient(
+            @Qualifier("shareitServerStreamConnectionManager") PoolingHttpClientConnectionManager connectionManager,
+            @Value("${shareit-server.http.streams.connection-request-timeout:1s}") Duration connectionRequestTimeout,
+            @Value("${shareit-server.http.response-timeout:60s}") Duration responseTimeout,
+            @Value("${shareit-server.http.keep-alive:15s}") Duration keepAlive,
+            @Value("${shareit-server.http.max-idle:30s}") Duration maxIdle) {
+        return httpClient(connectionManager, connectionRequestTimeout, responseTimeout, keepAlive, maxIdle);
+    }
+
     @Bean
-    public RestTemplate restTemplate() {
-        CloseableHttpClient httpClient = HttpClients.createDefault();
-        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory();
-        requestFactory.setHttpClient(httpClient);
-        return new RestTemplate(requestFactory);
+    public PoolingHttpClientConnectionManagerMetricsBinder shareitServerPoolMetrics(
+            @Qualifier("shareitServerConnectionManager") PoolingHttpClientConnectionManager connectionManager,
+            MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManagerMetricsBinder binder =
+                new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "shareit-server");
+        binder.bindTo(meterRegistry);
+        return binder;
+    }
+
+    @Bean
+    public PoolingHttpClientConnectionManagerMetricsBinder shareitServerStreamPoolMetrics(
+            @Qualifier("shareitServerStreamConnectionManager") PoolingHttpClientConnectionManager connectionManager,
+            MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManagerMetricsBinder binder =
+                new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "shareit-server-streams");
+        binder.bindTo(meterRegistry);
+        return binder;
+    }
+
+    private static PoolingHttpClientConnectionManager connectionManager(int maxTotal, int maxPerRoute,
+                                                                        Duration connectTimeout,
+                                                                        Duration validateAfterInactivity,
+                                                                        Duration timeToLive) {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setValidateAfterInactivity(TimeValue.of(validateAfterInactivity))
+                        .setTimeToLive(TimeValue.of(timeToLive))
+                        .build())
+                .build();
+    }
+
+    private static CloseableHttpClient httpClient(PoolingHttpClientConnectionManager connectionManager,
+                                                  Duration connectionRequestTimeout, Duration responseTimeout,
+                                                  Duration keepAlive, Duration maxIdle) {
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(connectionRequestTimeout))
+                        .setResponseTimeout(Timeout.of(responseTimeout))
+                        .build())
+                .setKeepAliveStrategy(keepAliveStrategy(TimeValue.of(keepAlive)))
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(maxIdle))
+                .build();
+    }
+
+    // Держим соединение не дольше, чем разрешил сервер в Keep-Alive, и не дольше своего лимита:
+    // Tomcat закрывает простаивающие соединения сам, и запрос в уже закрытый сокет падает.
+    private static ConnectionKeepAliveStrategy keepAliveStrategy(TimeValue limit) {
+        return (response, context) -> {
+            TimeValue fromServer = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return TimeValue.isPositive(fromServer) && fromServer.compareTo(limit) < 0 ? fromServer : limit;
+        };
     }
 }
@@ -0,0 +1,29 @@
+package ru.practicum.shareit.gateway.config;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Токен-бакет в форме GCRA: всё состояние — одно число, теоретическое время прихода (TAT),
+// к которому бакет опустеет при текущем темпе запросов. Запрос принимается, если TAT не ушло
+// вперёд больше чем на capacity интервалов; обновление через CAS, без блокировок.
+final class TokenBucket {
+    private final AtomicLong theoreticalArrival;
+
+    TokenBucket(long now) {
+        this.theoreticalArrival = new AtomicLong(now);
+    }
+
+    // 0, если запрос принят, иначе сколько наносекунд ждать до появления токена
+    long tryAcquire(long now, long intervalNanos, long burstNanos) {
+        while (true) {
+            long current = theoreticalArrival.get();
+            long next = Math.max(current, now) + intervalNanos;
+            long wait = next - burstNanos - now;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package ru.practicum.shareit.gateway.controller;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.gateway.client.BatchClient;
+import ru.practicum.shareit.gateway.dto.BatchRequestDto;
+import ru.practicum.shareit.gateway.dto.BatchResponseDto;
+
+@RestController
+@RequestMapping("/batch")
+@RequiredArgsConstructor
+@Slf4j
+public class BatchController {
+    private final BatchClient batchClient;
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+
+    @PostMapping
+    public ResponseEntity<BatchResponseDto> batch(@RequestHeader(USER_ID_HEADER) long userId,
+                                                  @RequestBody @Valid BatchRequestDto batchRequestDto) {
+        // Список проверяется в BatchClient, здесь он ещё может отсутствовать
+        log.info("Пакетный запрос: пользователь={}, запросов={}", userId,
+                batchRequestDto.getRequests() == null ? 0 : batchRequestDto.getRequests().size());
+        return ResponseEntity.ok(batchClient.execute(batchRequestDto, userId));
+    }
+}
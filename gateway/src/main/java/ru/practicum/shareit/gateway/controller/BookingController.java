@@ -5,9 +5,11 @@ import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.gateway.client.BookingClient;
 import ru.practicum.shareit.gateway.dto.BookingDto;
 import ru.practicum.shareit.gateway.dto.State;
@@ -39,6 +41,12 @@ public class BookingController {
         return bookingClient.approveBooking(userId, bookingId, approved);
     }
 
+    @GetMapping(path = "/subscribe", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> subscribe(@RequestHeader(USER_ID_HEADER) long userId) {
+        log.info("Подписка на статусы бронирований: пользователь={}", userId);
+        return bookingClient.subscribe(userId);
+    }
+
     @GetMapping("/{bookingId}")
     public ResponseEntity<Object> getBookingById(
             @RequestHeader(USER_ID_HEADER) long userId,
@@ -52,11 +60,12 @@ public class BookingController {
             @RequestHeader(USER_ID_HEADER) long userId,
             @RequestParam(name = "state", defaultValue = "ALL") String stateParam,
             @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
-            @Positive @RequestParam(defaultValue = "10") Integer size) {
+            @Positive @RequestParam(defaultValue = "10") Integer size,
+            @RequestParam(required = false) String cursor) {
         State state = State.from(stateParam);
-        log.info("Получение бронирований пользователя {}: состояние={}, from={}, size={}",
-                userId, stateParam, from, size);
-        return bookingClient.getBookings(userId, state, from, size);
+        log.info("Получение бронирований пользователя {}: состояние={}, from={}, size={}, cursor={}",
+                userId, stateParam, from, size, cursor);
+        return bookingClient.getBookings(userId, state, from, size, cursor);
     }
 
     @GetMapping("/owner")
@@ -64,10 +73,11 @@ public class BookingController {
             @RequestHeader(USER_ID_HEADER) long ownerId,
             @RequestParam(name = "state", defaultValue = "ALL") String stateParam,
             @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
-            @Positive @RequestParam(defaultValue = "10") Integer size) {
+            @Positive @RequestParam(defaultValue = "10") Integer size,
+            @RequestParam(required = false) String cursor) {
         State state = State.from(stateParam);
-        log.info("Получение бронирований владельца {}: состояние={}, from={}, size={}",
-                ownerId, stateParam, from, size);
-        return bookingClient.getOwnerBookings(ownerId, state, from, size);
+        log.info("Получение бронирований владельца {}: состояние={}, from={}, size={}, cursor={}",
+                ownerId, stateParam, from, size, cursor);
+        return bookingClient.getOwnerBookings(ownerId, state, from, size, cursor);
     }
 }
@@ -1,6 +1,8 @@
 package ru.practicum.shareit.gateway.controller;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -49,9 +51,19 @@ public class ItemController {
 
     @GetMapping("/search")
     public ResponseEntity<Object> searchItems(@RequestParam String text,
-                                              @RequestHeader(USER_ID_HEADER) Long userId) {
-        log.info("Поиск вещей: текст='{}', пользователь={}", text, userId);
-        return itemClient.searchItems(text, userId);
+                                              @RequestHeader(USER_ID_HEADER) Long userId,
+                                              @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
+                                              @Positive @RequestParam(defaultValue = "10") Integer size) {
+        log.info("Поиск вещей: текст='{}', пользователь={}, from={}, size={}", text, userId, from, size);
+        return itemClient.searchItems(text, userId, from, size);
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<Object> suggestNames(@RequestParam String prefix,
+                                               @RequestHeader(USER_ID_HEADER) Long userId,
+                                               @Positive @RequestParam(defaultValue = "10") Integer size) {
+        log.debug("Подсказки названий: префикс='{}', пользователь={}", prefix, userId);
+        return itemClient.suggestNames(prefix, userId, size);
     }
 
     @PostMapping("/{itemId}/comment")
@@ -3,9 +3,11 @@ package ru.practicum.shareit.gateway.controller;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.gateway.client.ItemRequestClient;
 import ru.practicum.shareit.gateway.dto.ItemRequestCreateDto;
 
@@ -41,6 +43,19 @@ public class ItemRequestController {
         return itemRequestClient.getAllRequests(userId, from, size);
     }
 
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamRequests(@RequestHeader(USER_ID_HEADER) Long userId) {
+        log.info("Подписка на новые запросы: пользователь={}", userId);
+        return itemRequestClient.streamRequests(userId);
+    }
+
+    @GetMapping("/{requestId}/matches")
+    public ResponseEntity<Object> getMatches(@PathVariable Long requestId,
+                                             @RequestHeader(USER_ID_HEADER) Long userId) {
+        log.info("Получение подобранных вещей: запрос={}, пользователь={}", requestId, userId);
+        return itemRequestClient.getMatches(requestId, userId);
+    }
+
     @GetMapping("/{requestId}")
     public ResponseEntity<Object> getRequestById(@PathVariable Long requestId,
                                                  @RequestHeader(USER_ID_HEADER) Long userId) {
@@ -1,11 +1,15 @@
 package ru.practicum.shareit.gateway.controller;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.gateway.client.UserClient;
 import ru.practicum.shareit.gateway.dto.UserDto;
 
@@ -37,12 +41,27 @@ public class UserController {
         return userClient.getUser(userId);
     }
 
-    @GetMapping
-    public ResponseEntity<Object> getAllUsers() {
+    // Без параметров страницы сервер отдаёт весь список; шлюз передаёт его потоком, не собирая в памяти
+    @GetMapping(params = {"!from", "!size", "!cursor"})
+    public ResponseEntity<StreamingResponseBody> getAllUsers() {
         log.info("Получение всех пользователей");
         return userClient.getAllUsers();
     }
 
+    @GetMapping
+    public ResponseEntity<Object> getUsersPage(@PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
+                                               @Positive @RequestParam(defaultValue = "100") Integer size,
+                                               @RequestParam(required = false) String cursor) {
+        log.info("Получение пользователей: from={}, size={}, cursor={}", from, size, cursor);
+        return userClient.getUsersPage(from, size, cursor);
+    }
+
+    @GetMapping(path = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        log.info("Выгрузка всех пользователей");
+        return userClient.exportUsers();
+    }
+
     @DeleteMapping("/{userId}")
     public ResponseEntity<Object> deleteUser(@PathVariable Long userId) {
         log.info("Удаление пользователя: ID={}", userId);
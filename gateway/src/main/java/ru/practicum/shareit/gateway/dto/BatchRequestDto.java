@@ -0,0 +1,34 @@
+package ru.practicum.shareit.gateway.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class BatchRequestDto {
+    public static final int MAX_REQUESTS = 20;
+
+    @NotEmpty(message = "Список запросов не должен быть пустым")
+    @Size(max = MAX_REQUESTS, message = "В пакете не больше 20 запросов")
+    private List<@Valid SubRequest> requests;
+
+    @Getter
+    @Setter
+    public static class SubRequest {
+        @NotBlank(message = "Идентификатор запроса не должен быть пустым")
+        private String id;
+        // Путь GET-запроса с параметрами, например "/bookings?state=FUTURE&size=5"
+        @NotBlank(message = "Путь запроса не должен быть пустым")
+        private String path;
+        // Не больше shareit.batch.timeout
+        @Positive(message = "Таймаут должен быть положительным")
+        private Long timeoutMs;
+    }
+}
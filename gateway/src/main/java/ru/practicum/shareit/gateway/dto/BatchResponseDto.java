@@ -0,0 +1,26 @@
+package ru.practicum.shareit.gateway.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@AllArgsConstructor
+public class BatchResponseDto {
+    private List<Part> responses;
+
+    @Getter
+    @AllArgsConstructor
+    public static class Part {
+        private String id;
+        private int status;
+        @JsonInclude(JsonInclude.Include.NON_EMPTY)
+        private Map<String, String> headers;
+        // Тело ответа сервера вставляется как есть, без разбора JSON
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private Object body;
+    }
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.gateway.exceptions;
+
+import lombok.Getter;
+
+@Getter
+public class ServiceUnavailableException extends RuntimeException {
+    // Через сколько секунд стоит повторить запрос, для заголовка Retry-After
+    private final long retryAfterSeconds;
+
+    public ServiceUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.gateway.exceptions;
+
+import lombok.Getter;
+
+@Getter
+public class TooManyRequestsException extends RuntimeException {
+    // Через сколько секунд запрос будет принят, для заголовка Retry-After
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
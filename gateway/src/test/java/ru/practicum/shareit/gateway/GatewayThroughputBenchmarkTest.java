@@ -0,0 +1,214 @@
+package ru.practicum.shareit.gateway;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Пропускная способность шлюза при 5k одновременных соединений против заглушки сервера с задержкой ответа:
+// обработка на виртуальных потоках против классического пула Tomcat.
+// mvn -Pbenchmark test -pl gateway -Dtest=GatewayThroughputBenchmarkTest
+@Tag("benchmark")
+@Slf4j
+class GatewayThroughputBenchmarkTest {
+    private static final int CONNECTIONS = Integer.getInteger("benchmark.connections", 5_000);
+    // Клиент, шлюз и заглушка в одной JVM, каждое соединение - два дескриптора: 5k входящих и 2k исходящих
+    // укладываются в типичный лимит 20k открытых файлов
+    private static final int UPSTREAM_CONNECTIONS = 2_000;
+    // Задержка такая, чтобы пул Tomcat (200 потоков, до 100 ответов/с) упирался в потоки раньше, чем в процессор
+    private static final Duration STUB_DELAY = Duration.ofSeconds(2);
+    private static final Duration WARMUP = Duration.ofSeconds(60);
+    private static final Duration MEASURE = Duration.ofSeconds(60);
+    private static final Duration CLIENT_TIMEOUT = Duration.ofMinutes(2);
+
+    private static HttpServer stub;
+
+    @BeforeAll
+    static void startStub() throws IOException {
+        // По умолчанию HttpServer держит не больше 200 простаивающих соединений и закрывает остальные, а шлюз
+        // переиспользует их из пула и получает "failed to respond"
+        System.setProperty("sun.net.httpserver.maxIdleConnections", String.valueOf(UPSTREAM_CONNECTIONS));
+        stub = HttpServer.create(new InetSocketAddress("localhost", 0), CONNECTIONS);
+        stub.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        stub.createContext("/bookings", GatewayThroughputBenchmarkTest::bookings);
+        stub.start();
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.stop(0);
+    }
+
+    @Test
+    void virtualThreadsServeMoreConcurrentRequestsThanTomcatPool() throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+
+        log.info("Заглушка отвечает за {} мс, {} соединений со шлюзом, {} шлюза с заглушкой, замер {} с",
+                STUB_DELAY.toMillis(), CONNECTIONS, UPSTREAM_CONNECTIONS, MEASURE.toSeconds());
+        log.info("Пул Tomcat: {}", platform);
+        log.info("Виртуальные потоки: {}", virtual);
+        assertThat(platform.failed()).isZero();
+        assertThat(virtual.failed()).isZero();
+        assertThat(virtual.perSecond()).isGreaterThan(platform.perSecond());
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        // Аргументы командной строки, а не properties(): те ниже application.properties и не перекрыли бы его
+        try (var gateway = (ServletWebServerApplicationContext) new SpringApplicationBuilder(ShareitGateway.class).run(
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--shareit-server.url=http://localhost:" + stub.getAddress().getPort(),
+                // Меряется модель потоков шлюза: сверх перегородки запросы ждут очереди, а не получают 503
+                "--shareit-server.http.max-total=" + UPSTREAM_CONNECTIONS,
+                "--shareit-server.http.max-per-route=" + UPSTREAM_CONNECTIONS,
+                "--shareit-server.clients.default.max-concurrent=" + UPSTREAM_CONNECTIONS,
+                "--shareit-server.clients.default.max-wait=" + CLIENT_TIMEOUT.toSeconds() + "s",
+                "--shareit-server.clients.default.timeout=" + CLIENT_TIMEOUT.toSeconds() + "s",
+                "--logging.level.ru.practicum.shareit.gateway.controller=WARN")) {
+            return load(gateway.getWebServer().getPort());
+        }
+    }
+
+    // Каждое соединение в цикле запрашивает бронирования своего пользователя, чтобы запросы не объединялись
+    private Result load(int port) throws InterruptedException {
+        long measureFrom = System.nanoTime() + WARMUP.toNanos();
+        long measureTo = measureFrom + MEASURE.toNanos();
+        List<Worker> workers = new ArrayList<>(CONNECTIONS);
+        // HTTP/1.1 без мультиплексирования: каждый ждущий ответа поток держит своё соединение со шлюзом
+        try (HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+             ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CONNECTIONS; i++) {
+                Worker worker = new Worker(client, port, i + 1, measureFrom, measureTo);
+                workers.add(worker);
+                clients.execute(worker);
+            }
+            clients.shutdown();
+            assertThat(clients.awaitTermination(WARMUP.plus(MEASURE).toSeconds() + 120, TimeUnit.SECONDS)).isTrue();
+        }
+        return Result.of(workers);
+    }
+
+    private static void bookings(HttpExchange exchange) throws IOException {
+        try {
+            Thread.sleep(STUB_DELAY);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        byte[] body = "[]".getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set(HttpHeaders.CONTENT_TYPE, "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+
+    private static final class Worker implements Runnable {
+        private final HttpClient client;
+        private final HttpRequest request;
+        private final long measureFrom;
+        private final long measureTo;
+        private long[] latencies = new long[64];
+        private int completed;
+        private int failed;
+
+        Worker(HttpClient client, int port, long userId, long measureFrom, long measureTo) {
+            this.client = client;
+            this.request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/bookings"))
+                    .header("X-Sharer-User-Id", String.valueOf(userId))
+                    .timeout(CLIENT_TIMEOUT)
+                    .build();
+            this.measureFrom = measureFrom;
+            this.measureTo = measureTo;
+        }
+
+        @Override
+        public void run() {
+            long now = System.nanoTime();
+            while (now < measureTo) {
+                boolean ok = send();
+                long done = System.nanoTime();
+                if (done >= measureFrom && done < measureTo) {
+                    if (ok) {
+                        record(done - now);
+                    } else {
+                        failed++;
+                    }
+                }
+                now = done;
+            }
+        }
+
+        private boolean send() {
+            try {
+                return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+            } catch (IOException e) {
+                return false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        private void record(long nanos) {
+            if (completed == latencies.length) {
+                latencies = Arrays.copyOf(latencies, completed * 2);
+            }
+            latencies[completed++] = nanos;
+        }
+    }
+
+    private record Result(long completed, long failed, double perSecond, double p50Millis, double p99Millis) {
+        static Result of(List<Worker> workers) {
+            long failed = 0;
+            long[] all = new long[workers.stream().mapToInt(worker -> worker.completed).sum()];
+            int at = 0;
+            for (Worker worker : workers) {
+                System.arraycopy(worker.latencies, 0, all, at, worker.completed);
+                at += worker.completed;
+                failed += worker.failed;
+            }
+            Arrays.sort(all);
+            return new Result(all.length, failed, (double) all.length / MEASURE.toSeconds(),
+                    percentile(all, 50), percentile(all, 99));
+        }
+
+        private static double percentile(long[] sorted, double percent) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percent / 100 * sorted.length) - 1;
+            return sorted[Math.max(index, 0)] / 1_000_000.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.0f запросов/с, p50 %.0f мс, p99 %.0f мс (%d ответов, %d ошибок)",
+                    perSecond, p50Millis, p99Millis, completed, failed);
+        }
+    }
+}
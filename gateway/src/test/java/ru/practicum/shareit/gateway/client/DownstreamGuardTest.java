@@ -0,0 +1,112 @@
+package ru.practicum.shareit.gateway.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+import ru.practicum.shareit.gateway.exceptions.ServiceUnavailableException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DownstreamGuardTest {
+    private static final int FAILURE_THRESHOLD = 3;
+    private static final int HALF_OPEN_PROBES = 2;
+    private static final Duration OPEN_FOR = Duration.ofMillis(50);
+
+    private final DownstreamGuard guard = new DownstreamGuard("items", 1000, Duration.ofMillis(50),
+            FAILURE_THRESHOLD, OPEN_FOR, HALF_OPEN_PROBES, new SimpleMeterRegistry());
+
+    @Test
+    void opensAfterConsecutiveFailuresAndClosesAfterSuccessfulProbes() throws Exception {
+        open();
+        assertThatThrownBy(() -> guard.call(() -> "ok")).isInstanceOf(ServiceUnavailableException.class);
+
+        Thread.sleep(OPEN_FOR.toMillis() + 10);
+        assertThat(guard.call(() -> "ok")).isEqualTo("ok");
+        assertThat(guard.state()).isEqualTo(DownstreamGuard.State.HALF_OPEN);
+        assertThat(guard.call(() -> "ok")).isEqualTo("ok");
+        assertThat(guard.state()).isEqualTo(DownstreamGuard.State.CLOSED);
+    }
+
+    @Test
+    void failedProbeOpensAgain() throws Exception {
+        open();
+        Thread.sleep(OPEN_FOR.toMillis() + 10);
+        fail();
+        assertThat(guard.state()).isEqualTo(DownstreamGuard.State.OPEN);
+        assertThatThrownBy(() -> guard.call(() -> "ok")).isInstanceOf(ServiceUnavailableException.class);
+    }
+
+    @Test
+    void concurrentCallersGetExactlyTheProbeBudget() throws Exception {
+        int threads = 64;
+        for (int round = 0; round < 20; round++) {
+            open();
+            Thread.sleep(OPEN_FOR.toMillis() + 10);
+
+            CountDownLatch go = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            AtomicInteger admitted = new AtomicInteger();
+            AtomicInteger rejected = new AtomicInteger();
+            List<Thread> callers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                callers.add(Thread.ofVirtual().start(() -> {
+                    try {
+                        go.await();
+                        guard.call(() -> {
+                            admitted.incrementAndGet();
+                            await(release);
+                            return "ok";
+                        });
+                    } catch (ServiceUnavailableException e) {
+                        rejected.incrementAndGet();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }));
+            }
+            go.countDown();
+            // Отклонённые завершаются сразу, пропущенные ждут release
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (admitted.get() + rejected.get() < threads && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            assertThat(admitted).as("раунд %d", round).hasValue(HALF_OPEN_PROBES);
+            assertThat(rejected).as("раунд %d", round).hasValue(threads - HALF_OPEN_PROBES);
+
+            release.countDown();
+            for (Thread caller : callers) {
+                caller.join();
+            }
+            assertThat(guard.state()).isEqualTo(DownstreamGuard.State.CLOSED);
+        }
+    }
+
+    private void open() {
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            fail();
+        }
+        assertThat(guard.state()).isEqualTo(DownstreamGuard.State.OPEN);
+    }
+
+    private void fail() {
+        assertThatThrownBy(() -> guard.call(() -> {
+            throw new ResourceAccessException("connection refused");
+        })).isInstanceOf(ResourceAccessException.class);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
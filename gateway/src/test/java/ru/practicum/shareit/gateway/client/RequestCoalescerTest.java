@@ -0,0 +1,115 @@
+package ru.practicum.shareit.gateway.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RequestCoalescerTest {
+    private static final RequestCoalescer.Key KEY = new RequestCoalescer.Key("items", "/items/1", 1L, null, 0);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RequestCoalescer coalescer = new RequestCoalescer(meterRegistry);
+
+    @Test
+    void followersShareLeaderResponse() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        ResponseEntity<byte[]> response = ResponseEntity.ok(new byte[]{1});
+
+        CompletableFuture<ResponseEntity<byte[]>> leader = runAsync(() -> {
+            calls.incrementAndGet();
+            started.countDown();
+            await(release);
+            return response;
+        });
+        CompletableFuture<ResponseEntity<byte[]>> follower = startFollower(started, () -> {
+            calls.incrementAndGet();
+            return ResponseEntity.ok(new byte[]{2});
+        });
+        release.countDown();
+
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isSameAs(response);
+        assertThat(follower.get(5, TimeUnit.SECONDS)).isSameAs(response);
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void followersReceiveLeaderError() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<ResponseEntity<byte[]>> leader = runAsync(() -> {
+            started.countDown();
+            await(release);
+            throw new StackOverflowError("leader failed");
+        });
+        CompletableFuture<ResponseEntity<byte[]>> follower = startFollower(started,
+                () -> ResponseEntity.ok(new byte[0]));
+        release.countDown();
+
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(StackOverflowError.class);
+        assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(StackOverflowError.class);
+
+        // Ключ освобождён: следующий запрос идёт на сервер сам
+        ResponseEntity<byte[]> next = ResponseEntity.ok(new byte[]{3});
+        assertThat(coalescer.execute(KEY, () -> next)).isSameAs(next);
+    }
+
+    private CompletableFuture<ResponseEntity<byte[]>> runAsync(Supplier<ResponseEntity<byte[]>> call) {
+        CompletableFuture<ResponseEntity<byte[]>> result = new CompletableFuture<>();
+        Thread.ofVirtual().start(() -> {
+            try {
+                result.complete(coalescer.execute(KEY, call));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    // Дожидается, пока первый запрос начнёт выполняться, запускает второй и ждёт, пока он к нему присоединится
+    private CompletableFuture<ResponseEntity<byte[]>> startFollower(CountDownLatch leaderStarted,
+                                                                    Supplier<ResponseEntity<byte[]>> call)
+            throws InterruptedException {
+        assertThat(leaderStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<ResponseEntity<byte[]>> follower = runAsync(call);
+        awaitCoalesced(1);
+        return follower;
+    }
+
+    private void awaitCoalesced(double expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (coalesced() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(coalesced()).isEqualTo(expected);
+    }
+
+    private double coalesced() {
+        var counter = meterRegistry.find("shareit.gateway.coalesced").counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package ru.practicum.shareit.gateway.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Открытые подписки не занимают общий пул: при заполненном пуле потоков запросы вещей проходят сразу
+@SpringBootTest(properties = {
+        "shareit-server.http.max-total=" + StreamPoolIsolationTest.POOL,
+        "shareit-server.http.max-per-route=" + StreamPoolIsolationTest.POOL,
+        "shareit-server.http.streams.max-total=" + StreamPoolIsolationTest.STREAMS
+})
+@AutoConfigureMockMvc
+class StreamPoolIsolationTest {
+    static final int POOL = 10;
+    static final int STREAMS = 3 * POOL;
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+
+    private static final CountDownLatch CLOSE_STREAMS = new CountDownLatch(1);
+    private static HttpServer server;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @DynamicPropertySource
+    static void shareitServer(DynamicPropertyRegistry registry) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/bookings/subscribe", StreamPoolIsolationTest::subscription);
+        server.createContext("/items/", exchange -> respond(exchange, "{\"id\":1,\"name\":\"Drill\"}"));
+        server.start();
+        registry.add("shareit-server.url", () -> "http://localhost:" + server.getAddress().getPort());
+    }
+
+    @AfterAll
+    static void stopServer() {
+        CLOSE_STREAMS.countDown();
+        server.stop(0);
+    }
+
+    @Test
+    void openStreamsDoNotStarveOtherClients() throws Exception {
+        for (int i = 0; i < STREAMS; i++) {
+            MvcResult subscription = mvc.perform(get("/bookings/subscribe").header(USER_ID_HEADER, i + 1))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            assertThat(subscription.getRequest().isAsyncStarted()).isTrue();
+        }
+
+        long started = System.nanoTime();
+        for (int i = 0; i < 2 * POOL; i++) {
+            mvc.perform(get("/items/1").header(USER_ID_HEADER, i + 1)).andExpect(status().isOk());
+        }
+        // Без отдельного пула каждый запрос ждал бы освобождения соединения до connection-request-timeout (5s)
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).isLessThan(2000);
+
+        mvc.perform(get("/bookings/subscribe").header(USER_ID_HEADER, STREAMS + 1))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+    }
+
+    private static void subscription(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set(HttpHeaders.CONTENT_TYPE, "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(": ping\n\n".getBytes(StandardCharsets.UTF_8));
+            body.flush();
+            CLOSE_STREAMS.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set(HttpHeaders.CONTENT_TYPE, "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package ru.practicum.shareit.gateway.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Ни один из проверяемых пакетов не доходит до сервера
+@SpringBootTest
+@AutoConfigureMockMvc
+class BatchControllerTest {
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Test
+    void batchWithoutRequestsIsBadRequest() throws Exception {
+        perform("{}").andExpect(status().isBadRequest());
+        perform("{\"requests\":[]}").andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void tooLargeBatchIsBadRequest() throws Exception {
+        StringBuilder body = new StringBuilder("{\"requests\":[");
+        for (int i = 0; i < 21; i++) {
+            body.append(i > 0 ? "," : "").append("{\"id\":\"").append(i).append("\",\"path\":\"/users/1\"}");
+        }
+        perform(body.append("]}").toString()).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void duplicateIdsAreBadRequest() throws Exception {
+        perform("{\"requests\":[{\"id\":\"a\",\"path\":\"/users/1\"},{\"id\":\"a\",\"path\":\"/users/2\"}]}")
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void unsupportedPathsAndBadParametersFailOnlyTheirPart() throws Exception {
+        perform("{\"requests\":[{\"id\":\"search\",\"path\":\"/items/search?text=drill\"},"
+                + "{\"id\":\"page\",\"path\":\"/bookings?from=-1\"},"
+                + "{\"id\":\"state\",\"path\":\"/bookings/owner?state=unknown\"}]}")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.responses[0].id").value("search"))
+                .andExpect(jsonPath("$.responses[0].status").value(404))
+                .andExpect(jsonPath("$.responses[1].status").value(400))
+                .andExpect(jsonPath("$.responses[2].status").value(400));
+    }
+
+    private ResultActions perform(String body) throws Exception {
+        return mvc.perform(post("/batch")
+                .header(USER_ID_HEADER, 1)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body));
+    }
+}
@@ -2,7 +2,10 @@ package ru.practicum.shareit.server.booking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.server.booking.dto.BookingDto;
 
 import java.util.List;
@@ -14,6 +17,7 @@ import java.util.List;
 public class BookingController {
     private final BookingService bookingService;
     private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
 
     @PostMapping
     public BookingDto createBooking(@RequestBody BookingDto bookingDto,
@@ -31,6 +35,13 @@ public class BookingController {
         return bookingService.approveBooking(bookingId, ownerId, approved);
     }
 
+    // Поток изменений статуса бронирований пользователя (SSE)
+    @GetMapping(path = "/subscribe", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@RequestHeader(USER_ID_HEADER) Long bookerId) {
+        log.info("Подписка на статусы бронирований: пользователь={}", bookerId);
+        return bookingService.subscribe(bookerId);
+    }
+
     @GetMapping("/{bookingId}")
     public BookingDto getBookingById(@PathVariable Long bookingId,
                                      @RequestHeader(USER_ID_HEADER) Long userId) {
@@ -39,24 +50,36 @@ public class BookingController {
     }
 
     @GetMapping
-    public List<BookingDto> getUserBookings(
+    public ResponseEntity<List<BookingDto>> getUserBookings(
             @RequestHeader(USER_ID_HEADER) Long userId,
             @RequestParam(defaultValue = "ALL") State state,
             @RequestParam(defaultValue = "0") Integer from,
-            @RequestParam(defaultValue = "10") Integer size) {
-        log.info("Получение бронирований пользователя {}: состояние={}, from={}, size={}",
-                userId, state, from, size);
-        return bookingService.getUserBookings(userId, state, "start", "DESC");
+            @RequestParam(defaultValue = "10") Integer size,
+            @RequestParam(required = false) String cursor) {
+        log.info("Получение бронирований пользователя {}: состояние={}, from={}, size={}, cursor={}",
+                userId, state, from, size, cursor);
+        return withNextCursor(bookingService.getUserBookings(userId, state, from, size, BookingCursor.decode(cursor)), size);
     }
 
     @GetMapping("/owner")
-    public List<BookingDto> getOwnerBookings(
+    public ResponseEntity<List<BookingDto>> getOwnerBookings(
             @RequestHeader(USER_ID_HEADER) Long ownerId,
             @RequestParam(defaultValue = "ALL") State state,
             @RequestParam(defaultValue = "0") Integer from,
-            @RequestParam(defaultValue = "10") Integer size) {
-        log.info("Получение бронирований владельца {}: состояние={}, from={}, size={}",
-                ownerId, state, from, size);
-        return bookingService.getOwnerBookings(ownerId, state, "start", "DESC");
+            @RequestParam(defaultValue = "10") Integer size,
+            @RequestParam(required = false) String cursor) {
+        log.info("Получение бронирований владельца {}: состояние={}, from={}, size={}, cursor={}",
+                ownerId, state, from, size, cursor);
+        return withNextCursor(bookingService.getOwnerBookings(ownerId, state, from, size, BookingCursor.decode(cursor)), size);
+    }
+
+    // Полная страница может быть не последней: отдаём курсор для запроса следующей
+    private ResponseEntity<List<BookingDto>> withNextCursor(List<BookingDto> bookings, int size) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!bookings.isEmpty() && bookings.size() == size) {
+            BookingDto last = bookings.getLast();
+            response.header(NEXT_CURSOR_HEADER, new BookingCursor(last.getStart(), last.getId()).encode());
+        }
+        return response.body(bookings);
     }
 }
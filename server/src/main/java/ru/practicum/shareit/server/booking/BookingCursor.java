@@ -0,0 +1,43 @@
+package ru.practicum.shareit.server.booking;
+
+import lombok.Getter;
+import ru.practicum.shareit.server.common.Cursors;
+import ru.practicum.shareit.server.exceptions.ValidationException;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+// Позиция keyset-пагинации списков бронирований: (start, id) последней выданной записи
+@Getter
+public class BookingCursor {
+    // Позиция "до первой записи": дальше любой реальной даты начала и любого id
+    public static final BookingCursor FIRST = new BookingCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+
+    private static final String SEPARATOR = "_";
+
+    private final LocalDateTime start;
+    private final Long id;
+
+    public BookingCursor(LocalDateTime start, Long id) {
+        this.start = start;
+        this.id = id;
+    }
+
+    public String encode() {
+        return Cursors.encode(start + SEPARATOR + id);
+    }
+
+    public static BookingCursor decode(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String raw = Cursors.decode(value);
+        try {
+            int separator = raw.lastIndexOf(SEPARATOR);
+            return new BookingCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new ValidationException("Некорректный курсор: " + value);
+        }
+    }
+}
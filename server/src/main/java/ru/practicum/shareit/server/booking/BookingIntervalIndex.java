@@ -0,0 +1,125 @@
+package ru.practicum.shareit.server.booking;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.server.exceptions.ConflictException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+// Индекс занятых интервалов по вещам: ожидающие и подтверждённые бронирования, ещё не закончившиеся.
+// Индекс живёт в памяти процесса и заполняется из БД при обращении к вещи; редко используемые вещи вытесняются.
+// Проверку и запись одной вещи вызывающий код выполняет под ItemLockStripes и фиксирует изменения в БД
+// до снятия блокировки, поэтому вещь, вытесненная в любой момент, загружается заново без потери бронирований.
+@Component
+public class BookingIntervalIndex {
+    private static final List<BookingStatus> ACTIVE_STATUSES = List.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+
+    private final BookingRepository bookingRepository;
+    private final Cache<Long, ItemIntervals> intervalsByItem;
+
+    public BookingIntervalIndex(BookingRepository bookingRepository,
+                                @Value("${shareit.booking.index.max-items:10000}") long maxItems,
+                                @Value("${shareit.booking.index.idle-timeout:1h}") Duration idleTimeout) {
+        this.bookingRepository = bookingRepository;
+        this.intervalsByItem = Caffeine.newBuilder()
+                .maximumSize(maxItems)
+                .expireAfterAccess(idleTimeout)
+                .build();
+    }
+
+    public void checkAvailable(Long itemId, LocalDateTime start, LocalDateTime end) {
+        ItemIntervals intervals = intervalsOf(itemId);
+        synchronized (intervals) {
+            if (intervals.overlaps(start, end)) {
+                throw new ConflictException("Вещь уже забронирована на указанный период");
+            }
+        }
+    }
+
+    // Приводит индекс в соответствие со статусом бронирования после создания, подтверждения или отклонения
+    public void sync(Booking booking) {
+        ItemIntervals intervals = intervalsByItem.getIfPresent(booking.getItem().getId());
+        if (intervals == null) {
+            return;
+        }
+        synchronized (intervals) {
+            if (ACTIVE_STATUSES.contains(booking.getStatus())) {
+                intervals.add(booking.getId(), booking.getStart(), booking.getEnd());
+            } else {
+                intervals.remove(booking.getId(), booking.getStart());
+            }
+        }
+    }
+
+    private ItemIntervals intervalsOf(Long itemId) {
+        ItemIntervals existing = intervalsByItem.getIfPresent(itemId);
+        if (existing != null) {
+            return existing;
+        }
+        ItemIntervals loaded = new ItemIntervals();
+        bookingRepository.findActiveByItemId(itemId, ACTIVE_STATUSES, LocalDateTime.now())
+                .forEach(booking -> loaded.add(booking.getId(), booking.getStart(), booking.getEnd()));
+        ItemIntervals concurrent = intervalsByItem.asMap().putIfAbsent(itemId, loaded);
+        return concurrent != null ? concurrent : loaded;
+    }
+
+    private static final class ItemIntervals {
+        private final NavigableSet<Interval> intervals = new TreeSet<>(Comparator
+                .comparing(Interval::start)
+                .thenComparing(Interval::bookingId));
+
+        // Самое длинное бронирование вещи; уменьшается только при перезагрузке из БД
+        private Duration maxDuration = Duration.ZERO;
+
+        // Бронирования из БД, сделанные до появления индекса, могут пересекаться между собой, поэтому
+        // перебираем все интервалы с началом раньше end. Интервал, начавшийся раньше start - maxDuration,
+        // закончился до start, на нём перебор останавливается
+        boolean overlaps(LocalDateTime start, LocalDateTime end) {
+            LocalDateTime earliestStart = start.minus(maxDuration);
+            Iterator<Interval> candidates = intervals.headSet(new Interval(Long.MIN_VALUE, end, end), false)
+                    .descendingIterator();
+            while (candidates.hasNext()) {
+                Interval candidate = candidates.next();
+                if (candidate.start().isBefore(earliestStart)) {
+                    return false;
+                }
+                if (candidate.end().isAfter(start)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void add(Long bookingId, LocalDateTime start, LocalDateTime end) {
+            pruneFinished();
+            intervals.add(new Interval(bookingId, start, end));
+            Duration duration = Duration.between(start, end);
+            if (duration.compareTo(maxDuration) > 0) {
+                maxDuration = duration;
+            }
+        }
+
+        void remove(Long bookingId, LocalDateTime start) {
+            intervals.remove(new Interval(bookingId, start, start));
+        }
+
+        // Закончившиеся бронирования больше ни с чем не пересекутся
+        private void pruneFinished() {
+            LocalDateTime now = LocalDateTime.now();
+            while (!intervals.isEmpty() && !intervals.first().end().isAfter(now)) {
+                intervals.pollFirst();
+            }
+        }
+    }
+
+    private record Interval(Long bookingId, LocalDateTime start, LocalDateTime end) {
+    }
+}
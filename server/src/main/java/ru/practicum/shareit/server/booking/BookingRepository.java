@@ -1,6 +1,6 @@
 package ru.practicum.shareit.server.booking;
 
-import ch.qos.logback.core.status.Status;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -17,92 +17,118 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     @Query("SELECT b FROM Booking b JOIN FETCH b.booker JOIN FETCH b.item WHERE b.id = :id")
     Optional<Booking> findByIdWithRelations(@Param("id") Long id);
 
-    @Query("SELECT b FROM Booking b JOIN FETCH b.item WHERE b.booker.id = :bookerId")
-    List<Booking> findByBookerId(@Param("bookerId") Long bookerId, Sort sort);
-
-    @Query("SELECT b FROM Booking b JOIN FETCH b.item WHERE b.booker.id = :bookerId " +
-            "AND b.start <= :now AND b.end >= :now")
-    List<Booking> findCurrentByBookerId(@Param("bookerId") Long bookerId,
-                                        @Param("now") LocalDateTime now, Sort sort);
-
-    @Query("SELECT b FROM Booking b JOIN FETCH b.booker JOIN FETCH b.item " +
-            "WHERE b.item.owner.id = :ownerId AND b.start <= :now AND b.end >= :now")
-    List<Booking> findCurrentByOwnerId(@Param("ownerId") Long ownerId,
-                                       @Param("now") LocalDateTime now, Sort sort);
-
-    @Query("SELECT b FROM Booking b JOIN FETCH b.booker JOIN FETCH b.item " +
-            "WHERE b.item.owner.id = :ownerId AND b.end < :now")
-    List<Booking> findByItemOwnerIdAndEndBefore(@Param("ownerId") Long ownerId,
-                                                @Param("now") LocalDateTime now, Sort sort);
-
-    @Query("SELECT b FROM Booking b JOIN FETCH b.booker JOIN FETCH b.item " +
-            "WHERE b.item.owner.id = :ownerId AND b.start > :now")
-    List<Booking> findByItemOwnerIdAndStartAfter(@Param("ownerId") Long ownerId,
-                                                 @Param("now") LocalDateTime now, Sort sort);
-
-    @Query("SELECT b FROM Booking b JOIN FETCH b.booker JOIN FETCH b.item " +
-            "WHERE b.item.owner.id = :ownerId AND b.status = :status")
-    List<Booking> findByItemOwnerIdAndStatus(@Param("ownerId") Long ownerId,
-                                             @Param("status") BookingStatus status, Sort sort);
+    @Query("SELECT b.item.id FROM Booking b WHERE b.id = :id")
+    Optional<Long> findItemIdById(@Param("id") Long id);
 
     List<Booking> findByItem_IdIn(List<Long> itemIds);
 
-    Booking findFirstByItem_IdAndItem_OwnerIdAndStatusNotOrderByEndDesc(Long itemId, Long ownerId, Status status);
-
-    Booking findFirstByItem_IdAndItem_OwnerIdAndStatusNotAndStartLessThanEqualOrderByEndDesc(Long itemId, Long ownerId, Status status, LocalDateTime end);
-
-    Booking findFirstByItem_IdAndItem_OwnerIdAndStatusNotAndStartGreaterThanEqualOrderByStartAsc(Long itemId, Long ownerId, Status status, LocalDateTime end);
-
     List<Booking> findByBooker_IdAndStartBeforeAndEndAfterOrderByStartDesc(Long bookerId, LocalDateTime now1, LocalDateTime now2);
 
     List<Booking> findByBooker_IdAndEndBeforeOrderByStartDesc(Long bookerId, LocalDateTime now);
 
     List<Booking> findByBooker_IdAndStartAfterOrderByStartDesc(Long bookerId, LocalDateTime now);
 
-    List<Booking> findByBooker_IdAndStatusOrderByStartDesc(Long bookerId, Status status);
-
     List<Booking> findByItem_OwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(Long ownerId, LocalDateTime now1, LocalDateTime now2);
 
     List<Booking> findByItem_OwnerIdAndEndBeforeOrderByStartDesc(Long ownerId, LocalDateTime now);
 
     List<Booking> findByItem_OwnerIdAndStartAfterOrderByStartDesc(Long ownerId, LocalDateTime now);
 
-    List<Booking> findByItem_OwnerIdAndStatusOrderByStartDesc(Long ownerId, Status status);
-
-    Optional<Booking> findFirstByItem_IdAndEndBeforeOrderByEndDesc(Long itemId, LocalDateTime now);
+    // Top-1 по одной вещи, опираются на индексы bookings(item_id, status, end_date/start_date)
+    Optional<Booking> findFirstByItem_IdAndStatusAndEndBeforeOrderByEndDesc(Long itemId, BookingStatus status,
+                                                                            LocalDateTime now);
 
-    Optional<Booking> findFirstByItem_IdAndStartAfterOrderByStartAsc(Long itemId, LocalDateTime now);
+    Optional<Booking> findFirstByItem_IdAndStatusAndStartAfterOrderByStartAsc(Long itemId, BookingStatus status,
+                                                                             LocalDateTime now);
 
     List<Booking> findByItem_IdAndBooker_IdAndEndBefore(Long itemId, Long bookerId, LocalDateTime end);
 
-    // Явно определяем JOIN FETCH для findNextBookings и findLastBookings
-    @Query("SELECT b FROM Booking b JOIN FETCH b.booker JOIN FETCH b.item " +
-            "where b.item.id = :itemId " +
-            "and b.status = :status " +
-            "and b.start < CURRENT_TIMESTAMP " +
-            "order by b.end desc")
-    List<Booking> findLastBookings(@Param("itemId") Long itemId, @Param("status") Status status);
-
-    @Query("SELECT b FROM Booking b JOIN FETCH b.booker JOIN FETCH b.item " +
-            "where b.item.id = :itemId " +
-            "and b.status = :status " +
-            "and b.start > CURRENT_TIMESTAMP " +
-            "order by b.start asc")
-    List<Booking> findNextBookings(@Param("itemId") Long itemId, @Param("status") Status status);
-
     @Query("SELECT b FROM Booking b JOIN FETCH b.item WHERE b.booker.id = :bookerId AND b.end < :now")
     List<Booking> findByBookerIdAndEndBefore(@Param("bookerId") Long bookerId,
                                              @Param("now") LocalDateTime now, Sort sort);
 
-    @Query("SELECT b FROM Booking b JOIN FETCH b.item WHERE b.booker.id = :bookerId AND b.start > :now")
-    List<Booking> findByBookerIdAndStartAfter(@Param("bookerId") Long bookerId,
-                                              @Param("now") LocalDateTime now, Sort sort);
+    @Query("SELECT b FROM Booking b WHERE b.item.id = :itemId AND b.status IN :statuses AND b.end > :now")
+    List<Booking> findActiveByItemId(@Param("itemId") Long itemId,
+                                     @Param("statuses") List<BookingStatus> statuses,
+                                     @Param("now") LocalDateTime now);
+
+    // Последнее завершённое и ближайшее будущее бронирование сразу для набора вещей
+    @Query("SELECT b FROM Booking b WHERE b.item.id IN :itemIds AND b.status = :status AND b.end < :now " +
+            "AND b.end = (SELECT MAX(l.end) FROM Booking l " +
+            "WHERE l.item.id = b.item.id AND l.status = :status AND l.end < :now)")
+    List<Booking> findLastBookingsByItemIds(@Param("itemIds") List<Long> itemIds,
+                                            @Param("status") BookingStatus status,
+                                            @Param("now") LocalDateTime now);
+
+    @Query("SELECT b FROM Booking b WHERE b.item.id IN :itemIds AND b.status = :status AND b.start > :now " +
+            "AND b.start = (SELECT MIN(n.start) FROM Booking n " +
+            "WHERE n.item.id = b.item.id AND n.status = :status AND n.start > :now)")
+    List<Booking> findNextBookingsByItemIds(@Param("itemIds") List<Long> itemIds,
+                                            @Param("status") BookingStatus status,
+                                            @Param("now") LocalDateTime now);
+
+    // Keyset-пагинация списков: записи строго после курсора в порядке (start DESC, id DESC)
+    String AFTER_CURSOR = "AND (b.start < :cursorStart OR (b.start = :cursorStart AND b.id < :cursorId)) " +
+            "ORDER BY b.start DESC, b.id DESC";
+
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item WHERE b.booker.id = :bookerId " + AFTER_CURSOR)
+    List<Booking> findPageByBookerId(@Param("bookerId") Long bookerId,
+                                     @Param("cursorStart") LocalDateTime cursorStart,
+                                     @Param("cursorId") Long cursorId, Pageable pageable);
 
-    @Query("SELECT b FROM Booking b JOIN FETCH b.item WHERE b.booker.id = :bookerId AND b.status = :status")
-    List<Booking> findByBookerIdAndStatus(@Param("bookerId") Long bookerId,
-                                          @Param("status") BookingStatus status, Sort sort);
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item WHERE b.booker.id = :bookerId " +
+            "AND b.start <= :now AND b.end >= :now " + AFTER_CURSOR)
+    List<Booking> findCurrentPageByBookerId(@Param("bookerId") Long bookerId, @Param("now") LocalDateTime now,
+                                            @Param("cursorStart") LocalDateTime cursorStart,
+                                            @Param("cursorId") Long cursorId, Pageable pageable);
+
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item WHERE b.booker.id = :bookerId " +
+            "AND b.end < :now " + AFTER_CURSOR)
+    List<Booking> findPastPageByBookerId(@Param("bookerId") Long bookerId, @Param("now") LocalDateTime now,
+                                         @Param("cursorStart") LocalDateTime cursorStart,
+                                         @Param("cursorId") Long cursorId, Pageable pageable);
+
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item WHERE b.booker.id = :bookerId " +
+            "AND b.start > :now " + AFTER_CURSOR)
+    List<Booking> findFuturePageByBookerId(@Param("bookerId") Long bookerId, @Param("now") LocalDateTime now,
+                                           @Param("cursorStart") LocalDateTime cursorStart,
+                                           @Param("cursorId") Long cursorId, Pageable pageable);
+
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item WHERE b.booker.id = :bookerId " +
+            "AND b.status = :status " + AFTER_CURSOR)
+    List<Booking> findPageByBookerIdAndStatus(@Param("bookerId") Long bookerId,
+                                              @Param("status") BookingStatus status,
+                                              @Param("cursorStart") LocalDateTime cursorStart,
+                                              @Param("cursorId") Long cursorId, Pageable pageable);
+
+    @Query("SELECT b FROM Booking b JOIN FETCH b.booker JOIN FETCH b.item " +
+            "WHERE b.item.owner.id = :ownerId " + AFTER_CURSOR)
+    List<Booking> findPageByOwnerId(@Param("ownerId") Long ownerId,
+                                    @Param("cursorStart") LocalDateTime cursorStart,
+                                    @Param("cursorId") Long cursorId, Pageable pageable);
+
+    @Query("SELECT b FROM Booking b JOIN FETCH b.booker JOIN FETCH b.item " +
+            "WHERE b.item.owner.id = :ownerId AND b.start <= :now AND b.end >= :now " + AFTER_CURSOR)
+    List<Booking> findCurrentPageByOwnerId(@Param("ownerId") Long ownerId, @Param("now") LocalDateTime now,
+                                           @Param("cursorStart") LocalDateTime cursorStart,
+                                           @Param("cursorId") Long cursorId, Pageable pageable);
+
+    @Query("SELECT b FROM Booking b JOIN FETCH b.booker JOIN FETCH b.item " +
+            "WHERE b.item.owner.id = :ownerId AND b.end < :now " + AFTER_CURSOR)
+    List<Booking> findPastPageByOwnerId(@Param("ownerId") Long ownerId, @Param("now") LocalDateTime now,
+                                        @Param("cursorStart") LocalDateTime cursorStart,
+                                        @Param("cursorId") Long cursorId, Pageable pageable);
+
+    @Query("SELECT b FROM Booking b JOIN FETCH b.booker JOIN FETCH b.item " +
+            "WHERE b.item.owner.id = :ownerId AND b.start > :now " + AFTER_CURSOR)
+    List<Booking> findFuturePageByOwnerId(@Param("ownerId") Long ownerId, @Param("now") LocalDateTime now,
+                                          @Param("cursorStart") LocalDateTime cursorStart,
+                                          @Param("cursorId") Long cursorId, Pageable pageable);
 
     @Query("SELECT b FROM Booking b JOIN FETCH b.booker JOIN FETCH b.item " +
-            "WHERE b.item.owner.id = :ownerId")
-    List<Booking> findByItemOwnerId(@Param("ownerId") Long ownerId, Sort sort);
+            "WHERE b.item.owner.id = :ownerId AND b.status = :status " + AFTER_CURSOR)
+    List<Booking> findPageByOwnerIdAndStatus(@Param("ownerId") Long ownerId,
+                                             @Param("status") BookingStatus status,
+                                             @Param("cursorStart") LocalDateTime cursorStart,
+                                             @Param("cursorId") Long cursorId, Pageable pageable);
 }
\ No newline at end of file
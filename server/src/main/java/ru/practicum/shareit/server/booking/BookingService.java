@@ -1,5 +1,6 @@
 package ru.practicum.shareit.server.booking;
 
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.server.booking.dto.BookingDto;
 
 import java.util.List;
@@ -12,8 +13,10 @@ public interface BookingService {
 
     BookingDto getBookingById(Long bookingId, Long userId);
 
-    List<BookingDto> getUserBookings(Long userId, State state, String sortBy, String direction);
+    List<BookingDto> getUserBookings(Long userId, State state, int from, int size, BookingCursor cursor);
 
-    List<BookingDto> getOwnerBookings(Long ownerId, State state, String sortBy, String direction);
+    List<BookingDto> getOwnerBookings(Long ownerId, State state, int from, int size, BookingCursor cursor);
+
+    SseEmitter subscribe(Long bookerId);
 
 }
\ No newline at end of file
@@ -1,13 +1,20 @@
 package ru.practicum.shareit.server.booking;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.server.booking.dto.BookingDto;
+import ru.practicum.shareit.server.common.OffsetPageRequest;
+import ru.practicum.shareit.server.exceptions.ConflictException;
 import ru.practicum.shareit.server.exceptions.NotFoundException;
 import ru.practicum.shareit.server.exceptions.ValidationException;
-import ru.practicum.shareit.server.item.ItemRepository;
 import ru.practicum.shareit.server.item.Item;
+import ru.practicum.shareit.server.item.ItemCache;
+import ru.practicum.shareit.server.user.UserExistenceCache;
 import ru.practicum.shareit.server.user.UserRepository;
 import ru.practicum.shareit.server.user.User;
 
@@ -19,16 +26,24 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class BookingServiceImpl implements BookingService {
     private final BookingRepository bookingRepository;
-    private final ItemRepository itemRepository;
     private final UserRepository userRepository;
+    private final UserExistenceCache userExistenceCache;
     private final BookingMapper bookingMapper;
+    private final ItemCache itemCache;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemLockStripes itemLockStripes;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final BookingStatusBroadcaster bookingStatusBroadcaster;
+
+    private static final int MAX_APPROVE_ATTEMPTS = 3;
 
     //Создание
     @Override
     public BookingDto createBooking(BookingDto bookingDto, Long bookerId) {
         User booker = userRepository.findById(bookerId)
                 .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
-        Item item = itemRepository.findById(bookingDto.getItemId())
+        Item item = itemCache.findById(bookingDto.getItemId())
                 .orElseThrow(() -> new NotFoundException("Вещь не найдена"));
 
         if (!item.getAvailable()) {
@@ -52,14 +67,45 @@ public class BookingServiceImpl implements BookingService {
                 .status(BookingStatus.WAITING)
                 .build();
 
-        Booking savedBooking = bookingRepository.save(booking);
+        // Проверка свободного окна и сохранение не должны перемежаться с другими операциями над вещью
+        Booking savedBooking = itemLockStripes.callLocked(item.getId(), () -> {
+            bookingIntervalIndex.checkAvailable(item.getId(), booking.getStart(), booking.getEnd());
+            Booking saved = bookingRepository.save(booking);
+            bookingIntervalIndex.sync(saved);
+            return saved;
+        });
         return bookingMapper.toDto(savedBooking);
     }
 
 
     @Override
     public BookingDto approveBooking(Long bookingId, Long ownerId, boolean approved) {
-        Booking booking = bookingRepository.findById(bookingId)
+        Long itemId = bookingRepository.findItemIdById(bookingId)
+                .orElseThrow(() -> new NotFoundException("Бронирование не найдено"));
+
+        // Транзакция фиксируется до снятия блокировки; конфликт версий означает, что бронирование
+        // изменили в обход блокировки (другой экземпляр сервера), и повторная попытка увидит новый статус
+        Booking updatedBooking = itemLockStripes.callLocked(itemId, () -> {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    Booking decided = transactionTemplate.execute(status -> decide(bookingId, ownerId, approved));
+                    bookingIntervalIndex.sync(decided);
+                    return decided;
+                } catch (ObjectOptimisticLockingFailureException e) {
+                    if (attempt >= MAX_APPROVE_ATTEMPTS) {
+                        throw new ConflictException("Бронирование было изменено параллельно, повторите запрос");
+                    }
+                    meterRegistry.counter("shareit.booking.optimistic.retries").increment();
+                }
+            }
+        });
+        BookingDto result = bookingMapper.toDto(updatedBooking);
+        bookingStatusBroadcaster.statusChanged(result);
+        return result;
+    }
+
+    private Booking decide(Long bookingId, Long ownerId, boolean approved) {
+        Booking booking = bookingRepository.findByIdWithRelations(bookingId)
                 .orElseThrow(() -> new NotFoundException("Бронирование не найдено"));
 
         if (!booking.getItem().getOwner().getId().equals(ownerId)) {
@@ -71,8 +117,7 @@ public class BookingServiceImpl implements BookingService {
         }
 
         booking.setStatus(approved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
-        Booking updatedBooking = bookingRepository.save(booking);
-        return bookingMapper.toDto(updatedBooking);
+        return bookingRepository.save(booking);
     }
 
     //Получение
@@ -91,21 +136,27 @@ public class BookingServiceImpl implements BookingService {
 
     //Получение
     @Override
-    public List<BookingDto> getUserBookings(Long userId, State state, String sortBy, String direction) {
-        userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+    public List<BookingDto> getUserBookings(Long userId, State state, int from, int size, BookingCursor cursor) {
+        if (!userExistenceCache.exists(userId)) {
+            throw new NotFoundException("Пользователь не найден");
+        }
 
-        Sort sort = Sort.by(Sort.Direction.fromString(direction), sortBy);
+        Pageable page = toPage(from, size, cursor);
+        BookingCursor after = cursor != null ? cursor : BookingCursor.FIRST;
         LocalDateTime now = LocalDateTime.now();
 
         List<Booking> bookings = switch (state) {
-            case ALL -> bookingRepository.findByBookerId(userId, sort);
-            case CURRENT -> bookingRepository.findCurrentByBookerId(userId, now, sort);
-            case PAST -> bookingRepository.findByBookerIdAndEndBefore(userId, now, sort);
-            case FUTURE -> bookingRepository.findByBookerIdAndStartAfter(userId, now, sort);
+            case ALL -> bookingRepository.findPageByBookerId(userId, after.getStart(), after.getId(), page);
+            case CURRENT -> bookingRepository.findCurrentPageByBookerId(
+                    userId, now, after.getStart(), after.getId(), page);
+            case PAST -> bookingRepository.findPastPageByBookerId(
+                    userId, now, after.getStart(), after.getId(), page);
+            case FUTURE -> bookingRepository.findFuturePageByBookerId(
+                    userId, now, after.getStart(), after.getId(), page);
             case WAITING, REJECTED -> {
                 BookingStatus status = BookingStatus.valueOf(state.name());
-                yield bookingRepository.findByBookerIdAndStatus(userId, status, sort);
+                yield bookingRepository.findPageByBookerIdAndStatus(
+                        userId, status, after.getStart(), after.getId(), page);
             }
             default -> throw new IllegalArgumentException("Неизвестный статус: " + state);
         };
@@ -116,21 +167,27 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public List<BookingDto> getOwnerBookings(Long ownerId, State state, String sortBy, String direction) {
-        userRepository.findById(ownerId)
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+    public List<BookingDto> getOwnerBookings(Long ownerId, State state, int from, int size, BookingCursor cursor) {
+        if (!userExistenceCache.exists(ownerId)) {
+            throw new NotFoundException("Пользователь не найден");
+        }
 
-        Sort sort = Sort.by(Sort.Direction.fromString(direction), sortBy);
+        Pageable page = toPage(from, size, cursor);
+        BookingCursor after = cursor != null ? cursor : BookingCursor.FIRST;
         LocalDateTime now = LocalDateTime.now();
 
         List<Booking> bookings = switch (state) {
-            case ALL -> bookingRepository.findByItemOwnerId(ownerId, sort);
-            case CURRENT -> bookingRepository.findCurrentByOwnerId(ownerId, now, sort);
-            case PAST -> bookingRepository.findByItemOwnerIdAndEndBefore(ownerId, now, sort);
-            case FUTURE -> bookingRepository.findByItemOwnerIdAndStartAfter(ownerId, now, sort);
+            case ALL -> bookingRepository.findPageByOwnerId(ownerId, after.getStart(), after.getId(), page);
+            case CURRENT -> bookingRepository.findCurrentPageByOwnerId(
+                    ownerId, now, after.getStart(), after.getId(), page);
+            case PAST -> bookingRepository.findPastPageByOwnerId(
+                    ownerId, now, after.getStart(), after.getId(), page);
+            case FUTURE -> bookingRepository.findFuturePageByOwnerId(
+                    ownerId, now, after.getStart(), after.getId(), page);
             case WAITING, REJECTED -> {
                 BookingStatus status = BookingStatus.valueOf(state.name());
-                yield bookingRepository.findByItemOwnerIdAndStatus(ownerId, status, sort);
+                yield bookingRepository.findPageByOwnerIdAndStatus(
+                        ownerId, status, after.getStart(), after.getId(), page);
             }
             default -> throw new IllegalArgumentException("Неизвестный статус: " + state);
         };
@@ -139,4 +196,23 @@ public class BookingServiceImpl implements BookingService {
                 .map(bookingMapper::toDto)
                 .collect(Collectors.toList());
     }
+
+    @Override
+    public SseEmitter subscribe(Long bookerId) {
+        if (!userExistenceCache.exists(bookerId)) {
+            throw new NotFoundException("Пользователь не найден");
+        }
+        return bookingStatusBroadcaster.subscribe(bookerId);
+    }
+
+    // С курсором страница начинается сразу после него, from учитывается только без курсора
+    private Pageable toPage(int from, int size, BookingCursor cursor) {
+        if (from < 0) {
+            throw new ValidationException("Параметр 'from' не может быть отрицательным");
+        }
+        if (size <= 0) {
+            throw new ValidationException("Параметр 'size' должен быть положительным");
+        }
+        return OffsetPageRequest.of(cursor != null ? 0 : from, size);
+    }
 }
\ No newline at end of file
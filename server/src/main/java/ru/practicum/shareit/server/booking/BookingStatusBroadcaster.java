@@ -0,0 +1,37 @@
+package ru.practicum.shareit.server.booking;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.server.booking.dto.BookingDto;
+import ru.practicum.shareit.server.common.SseEventHub;
+
+import java.time.Duration;
+
+// Сообщает автору бронирования о решении владельца, чтобы не опрашивать GET /bookings/{id}
+@Component
+public class BookingStatusBroadcaster {
+    private final SseEventHub<BookingDto> hub;
+
+    public BookingStatusBroadcaster(@Value("${shareit.sse.buffer-size:32}") int bufferSize,
+                                    @Value("${shareit.sse.timeout:30m}") Duration timeout,
+                                    @Value("${shareit.sse.heartbeat:15s}") Duration heartbeat,
+                                    MeterRegistry meterRegistry) {
+        this.hub = new SseEventHub<>("bookings", bufferSize, timeout, heartbeat, meterRegistry);
+    }
+
+    public SseEmitter subscribe(Long bookerId) {
+        return hub.subscribe(bookerId);
+    }
+
+    public void statusChanged(BookingDto booking) {
+        hub.publishTo(booking.getBooker().getId(), "booking", booking.getId(), booking);
+    }
+
+    @PreDestroy
+    public void close() {
+        hub.close();
+    }
+}
@@ -0,0 +1,40 @@
+package ru.practicum.shareit.server.booking;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+// Полосатые блокировки по id вещи: операции над одной вещью идут последовательно,
+// над разными - параллельно, а число замков ограничено числом полос
+@Component
+public class ItemLockStripes {
+    private final ReentrantLock[] stripes;
+    private final Counter contention;
+
+    public ItemLockStripes(@Value("${shareit.booking.lock-stripes:64}") int stripeCount, MeterRegistry meterRegistry) {
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.contention = Counter.builder("shareit.booking.lock.contention")
+                .description("Сколько раз блокировка вещи была занята другим запросом")
+                .register(meterRegistry);
+    }
+
+    public <T> T callLocked(Long itemId, Supplier<T> action) {
+        ReentrantLock lock = stripes[Math.floorMod(Long.hashCode(itemId), stripes.length)];
+        if (!lock.tryLock()) {
+            contention.increment();
+            lock.lock();
+        }
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.server.common;
+
+import ru.practicum.shareit.server.exceptions.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Курсоры keyset-пагинации отдаются клиентам непрозрачной строкой: base64url от ключа последней записи
+public final class Cursors {
+
+    private Cursors() {
+    }
+
+    public static String encode(String key) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String decode(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Некорректный курсор: " + cursor);
+        }
+    }
+}
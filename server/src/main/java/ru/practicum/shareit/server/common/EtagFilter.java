@@ -0,0 +1,20 @@
+package ru.practicum.shareit.server.common;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+import java.util.List;
+
+// ETag по содержимому ответа: шлюз переспрашивает закэшированные ответы с If-None-Match
+// и получает 304 без тела. Потоковые ответы фильтр буферизовал бы целиком, поэтому они исключены.
+@Component
+public class EtagFilter extends ShallowEtagHeaderFilter {
+    private static final List<String> STREAMING_SUFFIXES = List.of("/stream", "/subscribe", "/export");
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return STREAMING_SUFFIXES.stream().anyMatch(uri::endsWith);
+    }
+}
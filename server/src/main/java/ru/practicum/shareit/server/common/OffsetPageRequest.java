@@ -0,0 +1,100 @@
+package ru.practicum.shareit.server.common;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.Objects;
+
+// Pageable по смещению: from не обязан быть кратен size, в отличие от PageRequest.of(from / size, size)
+public class OffsetPageRequest implements Pageable {
+    private final long offset;
+    private final int limit;
+    private final Sort sort;
+
+    private OffsetPageRequest(long offset, int limit, Sort sort) {
+        this.offset = offset;
+        this.limit = limit;
+        this.sort = sort;
+    }
+
+    public static OffsetPageRequest of(long from, int size) {
+        return of(from, size, Sort.unsorted());
+    }
+
+    public static OffsetPageRequest of(long from, int size, Sort sort) {
+        if (from < 0) {
+            throw new IllegalArgumentException("Смещение не может быть отрицательным");
+        }
+        if (size <= 0) {
+            throw new IllegalArgumentException("Размер страницы должен быть положительным");
+        }
+        return new OffsetPageRequest(from, size, sort);
+    }
+
+    @Override
+    public int getPageNumber() {
+        return (int) (offset / limit);
+    }
+
+    @Override
+    public int getPageSize() {
+        return limit;
+    }
+
+    @Override
+    public long getOffset() {
+        return offset;
+    }
+
+    @Override
+    public Sort getSort() {
+        return sort;
+    }
+
+    @Override
+    public Pageable next() {
+        return new OffsetPageRequest(offset + limit, limit, sort);
+    }
+
+    @Override
+    public Pageable previousOrFirst() {
+        return hasPrevious() ? new OffsetPageRequest(offset - limit, limit, sort) : first();
+    }
+
+    @Override
+    public Pageable first() {
+        return new OffsetPageRequest(0, limit, sort);
+    }
+
+    @Override
+    public Pageable withPage(int pageNumber) {
+        return new OffsetPageRequest((long) pageNumber * limit, limit, sort);
+    }
+
+    @Override
+    public boolean hasPrevious() {
+        return offset >= limit;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        OffsetPageRequest that = (OffsetPageRequest) o;
+        return offset == that.offset && limit == that.limit && Objects.equals(sort, that.sort);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(offset, limit, sort);
+    }
+
+    @Override
+    public String toString() {
+        return "OffsetPageRequest{" +
+                "offset=" + offset +
+                ", limit=" + limit +
+                ", sort=" + sort +
+                '}';
+    }
+}
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.server.common;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// EntityManager открыт на весь запрос, как по умолчанию в Spring Boot, кроме подписок SSE.
+// Hibernate держит соединение с БД до закрытия EntityManager, а подписка закрывается только с потоком,
+// поэтому каждый подписчик занимал бы соединение на десятки минут и несколько подписок исчерпывали пул.
+// Своё определение перехватчика отключает стандартную регистрацию Spring Boot.
+@Configuration
+public class OpenInViewConfig implements WebMvcConfigurer {
+    private static final String[] SUBSCRIPTION_PATHS = {"/requests/stream", "/bookings/subscribe"};
+
+    @Bean
+    public OpenEntityManagerInViewInterceptor openEntityManagerInViewInterceptor() {
+        return new OpenEntityManagerInViewInterceptor();
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addWebRequestInterceptor(openEntityManagerInViewInterceptor())
+                .excludePathPatterns(SUBSCRIPTION_PATHS);
+    }
+}
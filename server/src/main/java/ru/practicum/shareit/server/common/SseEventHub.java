@@ -0,0 +1,171 @@
+package ru.practicum.shareit.server.common;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Рассылка событий подписчикам SSE, сгруппированным по ключу (обычно id пользователя).
+// У каждого подписчика своя ограниченная очередь, запись в сокет идёт на виртуальных потоках,
+// поэтому публикующий поток не ждёт медленных клиентов. Переполнившего очередь подписчика отключаем.
+@Slf4j
+public class SseEventHub<T> {
+    private final String name;
+    private final int bufferSize;
+    private final long timeoutMillis;
+    private final Map<Long, Set<Subscriber>> channels = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService heartbeats;
+    private final Counter dropped;
+
+    public SseEventHub(String name, int bufferSize, Duration timeout, Duration heartbeat, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.bufferSize = bufferSize;
+        this.timeoutMillis = timeout.toMillis();
+        Gauge.builder("shareit.sse.subscribers", subscriberCount, AtomicInteger::get)
+                .tag("hub", name)
+                .description("Число открытых SSE-подписок")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("shareit.sse.dropped")
+                .tag("hub", name)
+                .description("Подписчики, отключённые из-за переполнения очереди")
+                .register(meterRegistry);
+        // Пинг держит соединение через прокси и быстро находит отвалившихся клиентов
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("sse-heartbeat-" + name)
+                .daemon()
+                .factory());
+        heartbeats.scheduleAtFixedRate(this::ping, heartbeat.toMillis(), heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public SseEmitter subscribe(Long key) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(key, emitter);
+        channels.compute(key, (k, subscribers) -> {
+            Set<Subscriber> result = subscribers != null ? subscribers : ConcurrentHashMap.newKeySet();
+            result.add(subscriber);
+            return result;
+        });
+        subscriberCount.incrementAndGet();
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(error -> remove(subscriber));
+        return emitter;
+    }
+
+    public void publishTo(Long key, String eventName, Object eventId, T data) {
+        Set<Subscriber> subscribers = channels.get(key);
+        if (subscribers != null) {
+            Event<T> event = new Event<>(eventName, String.valueOf(eventId), data);
+            subscribers.forEach(subscriber -> subscriber.offer(event));
+        }
+    }
+
+    public void publishToAllExcept(Long key, String eventName, Object eventId, T data) {
+        Event<T> event = new Event<>(eventName, String.valueOf(eventId), data);
+        channels.forEach((channelKey, subscribers) -> {
+            if (!Objects.equals(channelKey, key)) {
+                subscribers.forEach(subscriber -> subscriber.offer(event));
+            }
+        });
+    }
+
+    public void close() {
+        heartbeats.shutdownNow();
+        channels.values().forEach(subscribers -> subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+        senders.shutdown();
+    }
+
+    private void ping() {
+        channels.values().forEach(subscribers -> subscribers.forEach(subscriber -> subscriber.offer(Event.heartbeat())));
+    }
+
+    private void remove(Subscriber subscriber) {
+        channels.computeIfPresent(subscriber.key, (k, subscribers) -> {
+            if (subscribers.remove(subscriber)) {
+                subscriberCount.decrementAndGet();
+            }
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    // data == null - пинг-комментарий
+    private record Event<T>(String name, String id, T data) {
+        static <T> Event<T> heartbeat() {
+            return new Event<>(null, null, null);
+        }
+
+        SseEmitter.SseEventBuilder toSse() {
+            if (data == null) {
+                return SseEmitter.event().comment("ping");
+            }
+            return SseEmitter.event().name(name).id(id).data(data, MediaType.APPLICATION_JSON);
+        }
+    }
+
+    private final class Subscriber {
+        private final Long key;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Event<T>> queue = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Subscriber(Long key, SseEmitter emitter) {
+            this.key = key;
+            this.emitter = emitter;
+        }
+
+        void offer(Event<T> event) {
+            if (!queue.offer(event)) {
+                dropped.increment();
+                log.warn("SSE {}: подписчик {} не успевает читать события, отключаем", name, key);
+                remove(this);
+                emitter.complete();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Event<T> event;
+                while ((event = queue.poll()) != null) {
+                    emitter.send(event.toSse());
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Клиент ушёл или подписка уже завершена
+                remove(this);
+                queue.clear();
+            } finally {
+                draining.set(false);
+            }
+            // Событие могло прийти между последним poll и сбросом флага
+            if (!queue.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package ru.practicum.shareit.server.item;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 
@@ -11,7 +13,8 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
 
     List<Comment> findByItemId(Long itemId);
 
-    List<Comment> findByItemIn(List<Item> items);
+    @Query("SELECT c FROM Comment c JOIN FETCH c.author WHERE c.item IN :items")
+    List<Comment> findByItemIn(@Param("items") List<Item> items);
 
     List<Comment> findByAuthorId(Long authorId);
 
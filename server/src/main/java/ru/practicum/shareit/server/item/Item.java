@@ -36,6 +36,10 @@ public class Item {
     @JoinColumn(name = "request_id")
     private ItemRequest request;
 
+    @Version
+    @Column(name = "version")
+    private Long version;
+
     @Override
     public String toString() {
         return "Item{" +
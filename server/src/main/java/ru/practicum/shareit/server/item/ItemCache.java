@@ -0,0 +1,68 @@
+package ru.practicum.shareit.server.item;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.server.request.ItemRequest;
+import ru.practicum.shareit.server.user.User;
+
+import java.time.Duration;
+import java.util.Optional;
+
+// Кэш вещей по id для чтения. Хранит неизменяемый снимок полей, а наружу отдаёт отсоединённую копию
+// с владельцем и запросом, у которых заполнен только id. Изменять вещь нужно через ItemRepository и evict.
+@Component
+public class ItemCache {
+    private final ItemRepository itemRepository;
+    private final Cache<Long, CachedItem> cache;
+
+    public ItemCache(ItemRepository itemRepository,
+                     @Value("${shareit.item-cache.max-size:10000}") long maxSize,
+                     @Value("${shareit.item-cache.ttl:10m}") Duration ttl,
+                     MeterRegistry meterRegistry) {
+        this.itemRepository = itemRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "items");
+    }
+
+    public Optional<Item> findById(Long itemId) {
+        // Загрузка атомарна по ключу: evict во время загрузки дождётся её и удалит устаревший снимок
+        CachedItem cached = cache.get(itemId, id -> itemRepository.findById(id)
+                .map(CachedItem::of)
+                .orElse(null));
+        return Optional.ofNullable(cached).map(CachedItem::toItem);
+    }
+
+    public void evict(Long itemId) {
+        cache.invalidate(itemId);
+    }
+
+    private record CachedItem(Long id, String name, String description, Boolean available,
+                              Long ownerId, Long requestId, Long version) {
+        static CachedItem of(Item item) {
+            return new CachedItem(item.getId(), item.getName(), item.getDescription(), item.getAvailable(),
+                    item.getOwner().getId(),
+                    item.getRequest() != null ? item.getRequest().getId() : null,
+                    item.getVersion());
+        }
+
+        Item toItem() {
+            return Item.builder()
+                    .id(id)
+                    .name(name)
+                    .description(description)
+                    .available(available)
+                    .owner(User.builder().id(ownerId).build())
+                    .request(requestId != null ? ItemRequest.builder().id(requestId).build() : null)
+                    .version(version)
+                    .build();
+        }
+    }
+}
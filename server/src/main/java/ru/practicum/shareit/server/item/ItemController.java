@@ -53,9 +53,20 @@ public class ItemController {
     //Поиск вещи
     @GetMapping("/search")
     public List<ItemDto> searchItems(@RequestParam String text,
-                                     @RequestHeader(USER_ID_HEADER) Long userId) {
-        log.info("Поиск вещей: текст='{}', пользователь={}", text, userId);
-        return itemService.searchItems(text, userId);
+                                     @RequestHeader(USER_ID_HEADER) Long userId,
+                                     @RequestParam(defaultValue = "0") Integer from,
+                                     @RequestParam(defaultValue = "10") Integer size) {
+        log.info("Поиск вещей: текст='{}', пользователь={}, from={}, size={}", text, userId, from, size);
+        return itemService.searchItems(text, userId, from, size);
+    }
+
+    //Подсказки названий
+    @GetMapping("/suggest")
+    public List<String> suggestNames(@RequestParam String prefix,
+                                     @RequestHeader(USER_ID_HEADER) Long userId,
+                                     @RequestParam(defaultValue = "10") Integer size) {
+        log.debug("Подсказки названий: префикс='{}', пользователь={}", prefix, userId);
+        return itemService.suggestNames(prefix, size);
     }
 
     //Добавление комментария
@@ -1,10 +1,12 @@
 package ru.practicum.shareit.server.item;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -16,8 +18,12 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
             "WHERE (UPPER(i.name) LIKE UPPER(CONCAT('%', :text, '%')) " +
             "OR UPPER(i.description) LIKE UPPER(CONCAT('%', :text, '%'))) " +
             "AND i.available = true")
-    List<Item> searchAvailableItems(@Param("text") String text);
+    List<Item> searchAvailableItems(@Param("text") String text, Pageable pageable);
 
     List<Item> findByRequestId(Long requestId);
 
+    List<Item> findByRequestIdIn(Collection<Long> requestIds);
+
+    List<Item> findByAvailableTrueAndIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
 }
\ No newline at end of file
@@ -0,0 +1,110 @@
+package ru.practicum.shareit.server.item;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.server.item.dto.ItemDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Кэш страниц поиска по нормализованному запросу. Ограничен примерным объёмом в байтах.
+// При изменении вещи сбрасываются запросы, которые входят в её старый или новый текст: только они могли измениться.
+@Component
+public class ItemSearchCache {
+    // Примерная стоимость объекта и ссылок без учёта строк
+    private static final int ENTRY_OVERHEAD_BYTES = 64;
+    private static final int DTO_OVERHEAD_BYTES = 48;
+
+    private final Cache<Key, List<ItemDto>> cache;
+    // Растёт при каждой инвалидации: результат, посчитанный до неё, в кэш не кладём
+    private final AtomicLong generation = new AtomicLong();
+    // Проверка поколения и put не должны разойтись с инвалидацией: обход ключей в removeIf
+    // может не увидеть запись, которую кладут одновременно с ним. Записи в кэш друг другу не мешают.
+    private final ReadWriteLock invalidation = new ReentrantReadWriteLock();
+
+    public ItemSearchCache(@Value("${shareit.search-cache.max-bytes:33554432}") long maxBytes,
+                           MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher(ItemSearchCache::weigh)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "item-search");
+        Gauge.builder("shareit.search.cache.bytes", cache,
+                        c -> c.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L))
+                .description("Примерный объём кэша результатов поиска в байтах")
+                .register(meterRegistry);
+    }
+
+    public static String normalize(String text) {
+        return text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    public List<ItemDto> get(String query, int from, int size) {
+        return cache.getIfPresent(new Key(query, from, size));
+    }
+
+    public void put(String query, int from, int size, List<ItemDto> items, long computedAt) {
+        List<ItemDto> page = List.copyOf(items);
+        invalidation.readLock().lock();
+        try {
+            if (generation.get() == computedAt) {
+                cache.put(new Key(query, from, size), page);
+            }
+        } finally {
+            invalidation.readLock().unlock();
+        }
+    }
+
+    // Вещь до и после изменения; для новой вещи before = null
+    public void invalidate(Item before, Item after) {
+        List<String> texts = new ArrayList<>(4);
+        addText(texts, before);
+        addText(texts, after);
+        invalidation.writeLock().lock();
+        try {
+            generation.incrementAndGet();
+            cache.asMap().keySet().removeIf(key -> texts.stream().anyMatch(text -> text.contains(key.query())));
+        } finally {
+            invalidation.writeLock().unlock();
+        }
+    }
+
+    private static void addText(List<String> texts, Item item) {
+        if (item == null) {
+            return;
+        }
+        if (item.getName() != null) {
+            texts.add(item.getName().toLowerCase(Locale.ROOT));
+        }
+        if (item.getDescription() != null) {
+            texts.add(item.getDescription().toLowerCase(Locale.ROOT));
+        }
+    }
+
+    private static int weigh(Key key, List<ItemDto> items) {
+        long bytes = ENTRY_OVERHEAD_BYTES + 2L * key.query().length();
+        for (ItemDto item : items) {
+            bytes += DTO_OVERHEAD_BYTES
+                    + 2L * (item.getName() != null ? item.getName().length() : 0)
+                    + 2L * (item.getDescription() != null ? item.getDescription().length() : 0);
+        }
+        return (int) Math.min(bytes, Integer.MAX_VALUE);
+    }
+
+    private record Key(String query, int from, int size) {
+    }
+}
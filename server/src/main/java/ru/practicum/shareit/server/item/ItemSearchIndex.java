@@ -0,0 +1,304 @@
+package ru.practicum.shareit.server.item;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Инвертированный индекс доступных вещей по триграммам названия и описания, плюс отсортированные названия для подсказок.
+// Триграммы отбирают кандидатов, затем проверяется вхождение подстроки - результат совпадает с LIKE '%text%'
+// для запросов от трёх символов.
+// Строится в фоне при старте, до готовности поиск идёт через БД.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ItemSearchIndex {
+    public static final int MIN_QUERY_LENGTH = 3;
+    private static final int GRAM = MIN_QUERY_LENGTH;
+    private static final int REBUILD_BATCH = 1000;
+    private static final Comparator<Hit> RANKING = Comparator.comparingInt(Hit::nameHits).reversed()
+            .thenComparing(Comparator.comparingInt(Hit::descriptionHits).reversed())
+            .thenComparingLong(Hit::id);
+
+    private final ItemRepository itemRepository;
+    private final Map<Long, IndexedItem> documents = new HashMap<>();
+    private final Map<String, Postings> postings = new HashMap<>();
+    // Названия доступных вещей в нижнем регистре -> исходное написание и число вещей с таким названием
+    private final NavigableMap<String, NameEntry> names = new TreeMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Вещи, изменённые во время перестроения: их актуальное состояние уже в индексе
+    private final Set<Long> touchedDuringRebuild = new HashSet<>();
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildInBackground() {
+        Thread.ofPlatform().name("item-search-rebuild").daemon().start(this::rebuild);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void index(Item item) {
+        lock.writeLock().lock();
+        try {
+            if (!ready) {
+                touchedDuringRebuild.add(item.getId());
+            }
+            put(item);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Страница id доступных вещей, в названии или описании которых встречается text (без учёта регистра).
+    // Порядок: больше вхождений в названии, затем в описании, затем по id.
+    // Кандидаты из самого короткого списка триграмм сразу идут в кучу из from + size лучших:
+    // память не зависит от числа совпадений. Запросы короче триграммы не обслуживаются (их отклоняет сервис).
+    public List<Long> search(String text, int from, int size) {
+        String query = normalize(text);
+        if (query.length() < GRAM) {
+            return List.of();
+        }
+        int limit = (int) Math.min((long) from + size, Integer.MAX_VALUE);
+        PriorityQueue<Hit> top = new PriorityQueue<>(Math.min(limit, 64), RANKING.reversed());
+        lock.readLock().lock();
+        try {
+            List<Postings> lists = postingsOf(query);
+            Postings smallest = lists.isEmpty() ? null : lists.getFirst();
+            for (int i = 0; smallest != null && i < smallest.size(); i++) {
+                long id = smallest.get(i);
+                IndexedItem document = containedInAll(lists, id) ? documents.get(id) : null;
+                if (document == null) {
+                    continue;
+                }
+                Hit hit = new Hit(id, occurrences(document.name(), query), occurrences(document.description(), query));
+                if (hit.nameHits() == 0 && hit.descriptionHits() == 0) {
+                    continue;
+                }
+                if (top.size() < limit) {
+                    top.add(hit);
+                } else if (RANKING.compare(hit, top.peek()) < 0) {
+                    top.poll();
+                    top.add(hit);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Hit> ranked = new ArrayList<>(top);
+        ranked.sort(RANKING);
+        return ranked.stream()
+                .skip(from)
+                .map(Hit::id)
+                .toList();
+    }
+
+    // До limit различных названий доступных вещей, начинающихся с prefix (без учёта регистра), по алфавиту
+    public List<String> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        lock.readLock().lock();
+        try {
+            List<String> result = new ArrayList<>();
+            for (Map.Entry<String, NameEntry> entry : names.tailMap(key, true).entrySet()) {
+                if (result.size() == limit || !entry.getKey().startsWith(key)) {
+                    break;
+                }
+                result.add(entry.getValue().name());
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void rebuild() {
+        long started = System.nanoTime();
+        long afterId = 0;
+        int indexed = 0;
+        try {
+            List<Item> batch;
+            do {
+                batch = itemRepository.findByAvailableTrueAndIdGreaterThanOrderByIdAsc(
+                        afterId, PageRequest.of(0, REBUILD_BATCH));
+                lock.writeLock().lock();
+                try {
+                    for (Item item : batch) {
+                        if (!touchedDuringRebuild.contains(item.getId())) {
+                            put(item);
+                        }
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                indexed += batch.size();
+                if (!batch.isEmpty()) {
+                    afterId = batch.getLast().getId();
+                }
+            } while (batch.size() == REBUILD_BATCH);
+
+            lock.writeLock().lock();
+            try {
+                touchedDuringRebuild.clear();
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Поисковый индекс вещей построен: {} вещей за {} мс",
+                    indexed, (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.error("Не удалось построить поисковый индекс вещей, поиск остаётся на БД", e);
+        }
+    }
+
+    // Вызывается под блокировкой записи
+    private void put(Item item) {
+        IndexedItem previous = documents.remove(item.getId());
+        if (previous != null) {
+            for (String gram : previous.grams()) {
+                Postings ids = postings.get(gram);
+                ids.remove(item.getId());
+                if (ids.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+            names.computeIfPresent(previous.name(), (key, entry) -> entry.count() == 1 ? null : entry.decrement());
+        }
+        if (!Boolean.TRUE.equals(item.getAvailable())) {
+            return;
+        }
+        IndexedItem document = new IndexedItem(normalize(item.getName()), normalize(item.getDescription()));
+        documents.put(item.getId(), document);
+        names.merge(document.name(), new NameEntry(item.getName(), 1), (entry, added) -> entry.increment());
+        for (String gram : document.grams()) {
+            postings.computeIfAbsent(gram, key -> new Postings()).add(item.getId());
+        }
+    }
+
+    // Вызывается под блокировкой чтения. Списки триграмм запроса от короткого к длинному;
+    // пустой результат, если какой-то триграммы нет ни у одной вещи
+    private List<Postings> postingsOf(String query) {
+        List<Postings> lists = new ArrayList<>();
+        for (String gram : grams(query)) {
+            Postings ids = postings.get(gram);
+            if (ids == null) {
+                return List.of();
+            }
+            lists.add(ids);
+        }
+        lists.sort(Comparator.comparingInt(Postings::size));
+        return lists;
+    }
+
+    private static boolean containedInAll(List<Postings> lists, long id) {
+        for (int j = 1; j < lists.size(); j++) {
+            if (!lists.get(j).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int occurrences(String text, String query) {
+        int count = 0;
+        for (int at = text.indexOf(query); at >= 0; at = text.indexOf(query, at + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private record NameEntry(String name, int count) {
+        NameEntry increment() {
+            return new NameEntry(name, count + 1);
+        }
+
+        NameEntry decrement() {
+            return new NameEntry(name, count - 1);
+        }
+    }
+
+    private record Hit(long id, int nameHits, int descriptionHits) {
+    }
+
+    private record IndexedItem(String name, String description) {
+        Set<String> grams() {
+            Set<String> grams = ItemSearchIndex.grams(name);
+            grams.addAll(ItemSearchIndex.grams(description));
+            return grams;
+        }
+    }
+
+    // Отсортированный список id без упаковки в Long: вещи создаются с растущими id, так что вставка обычно в конец
+    private static final class Postings {
+        private long[] ids = new long[4];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        long get(int index) {
+            return ids[index];
+        }
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        void add(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                return;
+            }
+            int insertAt = -position - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            ids[insertAt] = id;
+            size++;
+        }
+
+        void remove(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) {
+                return;
+            }
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+        }
+    }
+}
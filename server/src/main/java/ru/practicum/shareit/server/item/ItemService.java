@@ -17,7 +17,9 @@ public interface ItemService {
 
     List<ItemForOwnerDto> getItemsByOwner(Long ownerId);
 
-    List<ItemDto> searchItems(String text, Long userId);
+    List<ItemDto> searchItems(String text, Long userId, int from, int size);
+
+    List<String> suggestNames(String prefix, int size);
 
     CommentDto addComment(Long itemId, Long authorId, CommentDto commentDto);
 
@@ -7,17 +7,23 @@ import ru.practicum.shareit.server.booking.Booking;
 import ru.practicum.shareit.server.booking.BookingRepository;
 import ru.practicum.shareit.server.booking.BookingStatus;
 import ru.practicum.shareit.server.booking.dto.BookingShortDto;
+import ru.practicum.shareit.server.common.OffsetPageRequest;
 import ru.practicum.shareit.server.exceptions.NotFoundException;
 import ru.practicum.shareit.server.exceptions.ValidationException;
 import ru.practicum.shareit.server.item.dto.*;
 import ru.practicum.shareit.server.request.ItemRequestRepository;
 import ru.practicum.shareit.server.request.ItemRequest;
+import ru.practicum.shareit.server.request.ItemRequestMatcher;
+import ru.practicum.shareit.server.user.UserExistenceCache;
 import ru.practicum.shareit.server.user.UserRepository;
 import ru.practicum.shareit.server.user.User;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,11 +31,16 @@ import java.util.stream.Collectors;
 public class ItemServiceImpl implements ItemService {
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
+    private final UserExistenceCache userExistenceCache;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
     private final ItemRequestRepository itemRequestRepository;
     // Внедряем CommentMapper
     private final CommentMapper commentMapper;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemCache itemCache;
+    private final ItemSearchCache itemSearchCache;
+    private final ItemRequestMatcher itemRequestMatcher;
 
     @Override
     public ItemDto createItem(ItemDto itemDto, Long ownerId) {
@@ -56,6 +67,13 @@ public class ItemServiceImpl implements ItemService {
 
         Item item = ItemMapper.toItem(itemDto, owner, request);
         Item savedItem = itemRepository.save(item);
+        itemSearchIndex.index(savedItem);
+        itemSearchCache.invalidate(null, savedItem);
+        if (request != null) {
+            itemRequestMatcher.requestAnswered(request.getId());
+        } else {
+            itemRequestMatcher.itemCreated(savedItem);
+        }
         return ItemMapper.toItemDto(savedItem);
     }
 
@@ -67,6 +85,10 @@ public class ItemServiceImpl implements ItemService {
         if (!existingItem.getOwner().getId().equals(ownerId)) {
             throw new NotFoundException("Только владелец может обновлять вещь");
         }
+        Item before = Item.builder()
+                .name(existingItem.getName())
+                .description(existingItem.getDescription())
+                .build();
 
         if (itemDto.getName() != null) {
             existingItem.setName(itemDto.getName());
@@ -79,12 +101,15 @@ public class ItemServiceImpl implements ItemService {
         }
 
         Item updatedItem = itemRepository.save(existingItem);
+        itemCache.evict(itemId);
+        itemSearchIndex.index(updatedItem);
+        itemSearchCache.invalidate(before, updatedItem);
         return ItemMapper.toItemDto(updatedItem);
     }
 
     @Override
     public ItemWithBookingsDto getItemById(Long itemId, Long userId) {
-        Item item = itemRepository.findById(itemId)
+        Item item = itemCache.findById(itemId)
                 .orElseThrow(() -> new NotFoundException("Вещь не найдена"));
 
         ItemWithBookingsDto dto = mapToItemWithBookingsDto(item); // Используем существующий метод для ItemWithBookingsDto
@@ -92,17 +117,13 @@ public class ItemServiceImpl implements ItemService {
         if (item.getOwner().getId().equals(userId)) {
             LocalDateTime now = LocalDateTime.now();
 
-            List<Booking> lastBookings = bookingRepository.findByItemOwnerIdAndEndBefore(
-                    userId, now, Sort.by(Sort.Direction.DESC, "end"));
-            if (!lastBookings.isEmpty()) {
-                dto.setLastBooking(mapToBookingInfoDto(lastBookings.getFirst()));
-            }
+            bookingRepository.findFirstByItem_IdAndStatusAndEndBeforeOrderByEndDesc(
+                            itemId, BookingStatus.APPROVED, now)
+                    .ifPresent(booking -> dto.setLastBooking(mapToBookingInfoDto(booking)));
 
-            List<Booking> nextBookings = bookingRepository.findByItemOwnerIdAndStartAfter(
-                    userId, now, Sort.by(Sort.Direction.ASC, "start"));
-            if (!nextBookings.isEmpty()) {
-                dto.setNextBooking(mapToBookingInfoDto(nextBookings.getFirst()));
-            }
+            bookingRepository.findFirstByItem_IdAndStatusAndStartAfterOrderByStartAsc(
+                            itemId, BookingStatus.APPROVED, now)
+                    .ifPresent(booking -> dto.setNextBooking(mapToBookingInfoDto(booking)));
         }
 
         List<Comment> comments = commentRepository.findByItemId(itemId);
@@ -113,41 +134,95 @@ public class ItemServiceImpl implements ItemService {
 
     @Override
     public List<ItemForOwnerDto> getItemsByOwner(Long ownerId) {
-        userRepository.findById(ownerId)
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+        if (!userExistenceCache.exists(ownerId)) {
+            throw new NotFoundException("Пользователь не найден");
+        }
 
         List<Item> items = itemRepository.findByOwnerId(ownerId);
+        if (items.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // Бронирования и комментарии грузим одним запросом на всех, а не на каждую вещь
+        List<Long> itemIds = items.stream().map(Item::getId).toList();
         LocalDateTime now = LocalDateTime.now();
+        Map<Long, Booking> lastBookings = byItemId(
+                bookingRepository.findLastBookingsByItemIds(itemIds, BookingStatus.APPROVED, now));
+        Map<Long, Booking> nextBookings = byItemId(
+                bookingRepository.findNextBookingsByItemIds(itemIds, BookingStatus.APPROVED, now));
+        Map<Long, List<CommentDto>> comments = commentRepository.findByItemIn(items).stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId(),
+                        Collectors.mapping(commentMapper::toCommentDto, Collectors.toList())));
 
         return items.stream().map(item -> {
             ItemForOwnerDto dto = mapToItemForOwnerDto(item);
 
-            List<Booking> lastBookings = bookingRepository.findByItemOwnerIdAndEndBefore(
-                    ownerId, now, Sort.by(Sort.Direction.DESC, "end"));
-            List<Booking> nextBookings = bookingRepository.findByItemOwnerIdAndStartAfter(
-                    ownerId, now, Sort.by(Sort.Direction.ASC, "start"));
-
-            if (!lastBookings.isEmpty()) {
-                dto.setLastBooking(mapToBookingInfoDto(lastBookings.getFirst()));
+            Booking lastBooking = lastBookings.get(item.getId());
+            if (lastBooking != null) {
+                dto.setLastBooking(mapToBookingInfoDto(lastBooking));
             }
-            if (!nextBookings.isEmpty()) {
-                dto.setNextBooking(mapToBookingInfoDto(nextBookings.getFirst()));
+            Booking nextBooking = nextBookings.get(item.getId());
+            if (nextBooking != null) {
+                dto.setNextBooking(mapToBookingInfoDto(nextBooking));
             }
+            dto.setComments(comments.getOrDefault(item.getId(), new ArrayList<>()));
 
             return dto;
         }).collect(Collectors.toList());
     }
 
     @Override
-    public List<ItemDto> searchItems(String text, Long userId) {
+    public List<ItemDto> searchItems(String text, Long userId, int from, int size) {
+        if (from < 0) {
+            throw new ValidationException("Параметр 'from' не может быть отрицательным");
+        }
+        if (size <= 0) {
+            throw new ValidationException("Параметр 'size' должен быть положительным");
+        }
         if (text == null || text.isBlank()) {
             return new ArrayList<>();
         }
 
-        List<Item> items = itemRepository.searchAvailableItems(text);
-        return items.stream()
+        String query = ItemSearchCache.normalize(text);
+        // Одна-две буквы совпадают почти со всеми вещами: такой поиск - полный проход без пользы
+        if (query.length() < ItemSearchIndex.MIN_QUERY_LENGTH) {
+            throw new ValidationException("Поисковый запрос должен содержать не меньше "
+                    + ItemSearchIndex.MIN_QUERY_LENGTH + " символов");
+        }
+        if (!itemSearchIndex.isReady()) {
+            // Пока индекс строится после старта, ищем через БД без ранжирования и без кэша
+            return itemRepository.searchAvailableItems(query, OffsetPageRequest.of(from, size, Sort.by("id"))).stream()
+                    .map(ItemMapper::toItemDto)
+                    .collect(Collectors.toList());
+        }
+
+        List<ItemDto> cached = itemSearchCache.get(query, from, size);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = itemSearchCache.generation();
+        List<Long> ids = itemSearchIndex.search(query, from, size);
+        Map<Long, Item> items = itemRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        List<ItemDto> result = ids.stream()
+                .map(items::get)
+                .filter(Objects::nonNull)
                 .map(ItemMapper::toItemDto)
                 .collect(Collectors.toList());
+        itemSearchCache.put(query, from, size, result, generation);
+        return result;
+    }
+
+    @Override
+    public List<String> suggestNames(String prefix, int size) {
+        if (size <= 0) {
+            throw new ValidationException("Параметр 'size' должен быть положительным");
+        }
+        // Подсказки только из индекса: пока он строится, в БД на каждое нажатие клавиши не ходим
+        if (prefix == null || prefix.isBlank() || !itemSearchIndex.isReady()) {
+            return new ArrayList<>();
+        }
+        return itemSearchIndex.suggest(prefix, size);
     }
 
     @Override
@@ -163,7 +238,7 @@ public class ItemServiceImpl implements ItemService {
             throw new ValidationException("Можно комментировать только ранее забронированные вещи");
         }
 
-        Item item = itemRepository.findById(itemId)
+        Item item = itemCache.findById(itemId)
                 .orElseThrow(() -> new NotFoundException("Вещь не найдена"));
         User author = userRepository.findById(authorId)
                 .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
@@ -196,6 +271,13 @@ public class ItemServiceImpl implements ItemService {
                 .build();
     }
 
+    // При равных датах у вещи может найтись несколько бронирований - берём любое одно
+    private Map<Long, Booking> byItemId(List<Booking> bookings) {
+        return bookings.stream()
+                .collect(Collectors.toMap(booking -> booking.getItem().getId(), Function.identity(),
+                        (first, second) -> first));
+    }
+
     private BookingShortDto mapToBookingInfoDto(Booking booking) {
         return BookingShortDto.builder()
                 .id(booking.getId())
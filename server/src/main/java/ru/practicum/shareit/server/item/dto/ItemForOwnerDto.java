@@ -5,6 +5,8 @@ import lombok.Getter;
 import lombok.Setter;
 import ru.practicum.shareit.server.booking.dto.BookingShortDto;
 
+import java.util.List;
+
 @Getter
 @Setter
 @Builder
@@ -15,4 +17,5 @@ public class ItemForOwnerDto {
     private Boolean available;
     private BookingShortDto lastBooking;
     private BookingShortDto nextBooking;
+    private List<CommentDto> comments;
 }
\ No newline at end of file
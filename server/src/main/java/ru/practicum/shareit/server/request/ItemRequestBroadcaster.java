@@ -0,0 +1,37 @@
+package ru.practicum.shareit.server.request;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.server.common.SseEventHub;
+import ru.practicum.shareit.server.request.dto.ItemRequestDto;
+
+import java.time.Duration;
+
+// Рассылает новые запросы на вещи всем подписчикам, кроме автора - как в /requests/all
+@Component
+public class ItemRequestBroadcaster {
+    private final SseEventHub<ItemRequestDto> hub;
+
+    public ItemRequestBroadcaster(@Value("${shareit.sse.buffer-size:32}") int bufferSize,
+                                  @Value("${shareit.sse.timeout:30m}") Duration timeout,
+                                  @Value("${shareit.sse.heartbeat:15s}") Duration heartbeat,
+                                  MeterRegistry meterRegistry) {
+        this.hub = new SseEventHub<>("requests", bufferSize, timeout, heartbeat, meterRegistry);
+    }
+
+    public SseEmitter subscribe(Long userId) {
+        return hub.subscribe(userId);
+    }
+
+    public void requestCreated(ItemRequestDto request) {
+        hub.publishToAllExcept(request.getRequestorId(), "request", request.getId(), request);
+    }
+
+    @PreDestroy
+    public void close() {
+        hub.close();
+    }
+}
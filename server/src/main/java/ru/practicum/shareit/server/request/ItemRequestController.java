@@ -3,7 +3,10 @@ package ru.practicum.shareit.server.request;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.server.item.dto.ItemDto;
 import ru.practicum.shareit.server.request.dto.ItemRequestDto;
 
 import java.util.List;
@@ -44,6 +47,21 @@ public class ItemRequestController {
         return itemRequestService.getAllRequests(userId, from, size);
     }
 
+    //Подписка на новые запросы других пользователей (SSE) вместо опроса /requests/all.
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamRequests(@RequestHeader(USER_ID_HEADER) Long userId) {
+        log.info("Subscribing to new item requests. User ID: {}", userId);
+        return itemRequestService.subscribe(userId);
+    }
+
+    //Вещи, автоматически подобранные под запрос (только для автора запроса).
+    @GetMapping("/{requestId}/matches")
+    public List<ItemDto> getMatches(@PathVariable Long requestId,
+                                    @RequestHeader(USER_ID_HEADER) Long userId) {
+        log.info("Fetching matched items for request with ID: {}. User ID: {}", requestId, userId);
+        return itemRequestService.getMatches(requestId, userId);
+    }
+
     //Получает информацию о конкретном запросе по его идентификатору.
     @GetMapping("/{requestId}")
     public ItemRequestDto getRequestById(@PathVariable Long requestId,
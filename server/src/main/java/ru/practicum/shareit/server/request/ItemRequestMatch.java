@@ -0,0 +1,49 @@
+package ru.practicum.shareit.server.request;
+
+import jakarta.persistence.*;
+import lombok.*;
+import ru.practicum.shareit.server.item.Item;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+// Вещь, подобранная автоматически под открытый запрос. Автор запроса видит её в /requests/{id}/matches
+@Entity
+@Table(name = "request_matches")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemRequestMatch {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "request_id", nullable = false)
+    private Long requestId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "item_id")
+    private Item item;
+
+    // Доля слов запроса, найденных в названии или описании вещи
+    @Column(name = "score", nullable = false)
+    private Double score;
+
+    @Column(name = "created")
+    private LocalDateTime created;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ItemRequestMatch match = (ItemRequestMatch) o;
+        return id != null && Objects.equals(id, match.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+}
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.server.request;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.server.item.Item;
+
+import java.util.List;
+
+@Repository
+public interface ItemRequestMatchRepository extends JpaRepository<ItemRequestMatch, Long> {
+
+    @Query("SELECT m.item FROM ItemRequestMatch m WHERE m.requestId = :requestId AND m.item.available = true " +
+            "ORDER BY m.score DESC, m.id")
+    List<Item> findAvailableItemsByRequestId(@Param("requestId") Long requestId);
+}
@@ -0,0 +1,233 @@
+package ru.practicum.shareit.server.request;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.server.item.Item;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+// Подбор новых вещей под открытые запросы (на которые ещё никто не ответил).
+// Индекс слово -> id запросов позволяет не перебирать все запросы: смотрим только те, где есть слова вещи.
+// Сопоставление идёт в отдельном ограниченном пуле: при переполнении очереди задача отбрасывается,
+// создание вещи от этого не замедляется.
+@Component
+@Slf4j
+public class ItemRequestMatcher {
+    private static final int MIN_TOKEN_LENGTH = 3;
+    private static final int LOAD_BATCH = 1000;
+
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemRequestMatchRepository matchRepository;
+    private final double minCoverage;
+    private final int maxMatchesPerItem;
+    private final ThreadPoolExecutor executor;
+    private final Counter dropped;
+    private final Counter recorded;
+
+    private final Map<Long, OpenRequest> openRequests = new HashMap<>();
+    private final Map<String, Set<Long>> requestsByToken = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Запросы, получившие ответ во время загрузки индекса: загрузчик не должен вернуть их обратно
+    private final Set<Long> answeredDuringLoad = new HashSet<>();
+    private boolean loaded;
+
+    public ItemRequestMatcher(ItemRequestRepository itemRequestRepository,
+                              ItemRequestMatchRepository matchRepository,
+                              @Value("${shareit.matching.threads:2}") int threads,
+                              @Value("${shareit.matching.queue-capacity:1000}") int queueCapacity,
+                              @Value("${shareit.matching.min-coverage:0.5}") double minCoverage,
+                              @Value("${shareit.matching.max-per-item:20}") int maxMatchesPerItem,
+                              MeterRegistry meterRegistry) {
+        this.itemRequestRepository = itemRequestRepository;
+        this.matchRepository = matchRepository;
+        this.minCoverage = minCoverage;
+        this.maxMatchesPerItem = maxMatchesPerItem;
+        this.dropped = Counter.builder("shareit.matching.dropped")
+                .description("Вещи, не сопоставленные с запросами из-за переполнения очереди")
+                .register(meterRegistry);
+        this.recorded = Counter.builder("shareit.matching.matches")
+                .description("Сохранённые совпадения вещей с запросами")
+                .register(meterRegistry);
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("request-matcher-", 0).daemon().factory(),
+                (task, pool) -> {
+                    dropped.increment();
+                    log.warn("Очередь сопоставления вещей с запросами переполнена, задача отброшена");
+                });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadInBackground() {
+        Thread.ofPlatform().name("request-matcher-load").daemon().start(this::load);
+    }
+
+    public void requestCreated(ItemRequest request) {
+        lock.writeLock().lock();
+        try {
+            put(request);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // На запрос ответили - он больше не открыт
+    public void requestAnswered(Long requestId) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                answeredDuringLoad.add(requestId);
+            }
+            OpenRequest request = openRequests.remove(requestId);
+            if (request != null) {
+                for (String token : request.tokens()) {
+                    Set<Long> ids = requestsByToken.get(token);
+                    ids.remove(requestId);
+                    if (ids.isEmpty()) {
+                        requestsByToken.remove(token);
+                    }
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void itemCreated(Item item) {
+        if (!Boolean.TRUE.equals(item.getAvailable())) {
+            return;
+        }
+        // Сущность принадлежит потоку запроса, в задачу передаём её копию с id и версией:
+        // Hibernate примет её как отсоединённую ссылку без лишнего select
+        Item reference = Item.builder()
+                .id(item.getId())
+                .version(item.getVersion())
+                .build();
+        Long ownerId = item.getOwner().getId();
+        Set<String> tokens = tokens(item.getName() + " " + item.getDescription());
+        executor.execute(() -> match(reference, ownerId, tokens));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void match(Item item, Long ownerId, Set<String> itemTokens) {
+        List<ItemRequestMatch> matches;
+        lock.readLock().lock();
+        try {
+            Map<Long, Integer> shared = new HashMap<>();
+            for (String token : itemTokens) {
+                for (Long requestId : requestsByToken.getOrDefault(token, Set.of())) {
+                    shared.merge(requestId, 1, Integer::sum);
+                }
+            }
+            LocalDateTime now = LocalDateTime.now();
+            matches = shared.entrySet().stream()
+                    .filter(entry -> !openRequests.get(entry.getKey()).requestorId().equals(ownerId))
+                    .map(entry -> ItemRequestMatch.builder()
+                            .requestId(entry.getKey())
+                            .item(item)
+                            .score((double) entry.getValue() / openRequests.get(entry.getKey()).tokens().size())
+                            .created(now)
+                            .build())
+                    .filter(match -> match.getScore() >= minCoverage)
+                    .sorted(Comparator.comparing(ItemRequestMatch::getScore).reversed())
+                    .limit(maxMatchesPerItem)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (matches.isEmpty()) {
+            return;
+        }
+        try {
+            matchRepository.saveAll(matches);
+            recorded.increment(matches.size());
+        } catch (RuntimeException e) {
+            log.warn("Не удалось сохранить совпадения для вещи {}", item.getId(), e);
+        }
+    }
+
+    private void load() {
+        long afterId = 0;
+        int count = 0;
+        try {
+            List<ItemRequest> batch;
+            do {
+                batch = itemRequestRepository.findOpenAfter(afterId, PageRequest.of(0, LOAD_BATCH));
+                lock.writeLock().lock();
+                try {
+                    for (ItemRequest request : batch) {
+                        if (!answeredDuringLoad.contains(request.getId())) {
+                            put(request);
+                        }
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                count += batch.size();
+                if (!batch.isEmpty()) {
+                    afterId = batch.getLast().getId();
+                }
+            } while (batch.size() == LOAD_BATCH);
+
+            lock.writeLock().lock();
+            try {
+                answeredDuringLoad.clear();
+                loaded = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Индекс открытых запросов загружен: {} запросов", count);
+        } catch (RuntimeException e) {
+            log.error("Не удалось загрузить открытые запросы, подбор работает только для новых", e);
+        }
+    }
+
+    // Вызывается под блокировкой записи
+    private void put(ItemRequest request) {
+        Set<String> tokens = tokens(request.getDescription());
+        if (tokens.isEmpty()) {
+            return;
+        }
+        openRequests.put(request.getId(), new OpenRequest(request.getRequestor().getId(), tokens));
+        for (String token : tokens) {
+            requestsByToken.computeIfAbsent(token, key -> new HashSet<>()).add(request.getId());
+        }
+    }
+
+    private static Set<String> tokens(String text) {
+        if (text == null) {
+            return Set.of();
+        }
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(token -> token.length() >= MIN_TOKEN_LENGTH)
+                .collect(Collectors.toSet());
+    }
+
+    private record OpenRequest(Long requestorId, Set<String> tokens) {
+    }
+}
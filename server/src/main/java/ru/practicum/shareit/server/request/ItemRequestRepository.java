@@ -1,7 +1,10 @@
 package ru.practicum.shareit.server.request;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,6 +14,11 @@ public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long>
 
     List<ItemRequest> findByRequestorId(Long requestorId, Sort sort);
 
-    List<ItemRequest> findByRequestorIdNot(Long requestorId, Sort sort);
+    List<ItemRequest> findByRequestorIdNot(Long requestorId, Pageable pageable);
+
+    // Запросы без ответов по возрастанию id, начиная после afterId
+    @Query("SELECT r FROM ItemRequest r WHERE r.id > :afterId " +
+            "AND NOT EXISTS (SELECT i FROM Item i WHERE i.request = r) ORDER BY r.id")
+    List<ItemRequest> findOpenAfter(@Param("afterId") Long afterId, Pageable pageable);
 
 }
\ No newline at end of file
@@ -3,6 +3,8 @@ package ru.practicum.shareit.server.request;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.server.common.OffsetPageRequest;
 import ru.practicum.shareit.server.exceptions.NotFoundException;
 import ru.practicum.shareit.server.exceptions.ValidationException;
 import ru.practicum.shareit.server.item.ItemRepository;
@@ -10,11 +12,14 @@ import ru.practicum.shareit.server.item.dto.ItemDto;
 import ru.practicum.shareit.server.item.Item;
 import ru.practicum.shareit.server.item.ItemMapper; // Статический импорт ItemMapper
 import ru.practicum.shareit.server.request.dto.ItemRequestDto;
+import ru.practicum.shareit.server.user.UserExistenceCache;
 import ru.practicum.shareit.server.user.UserRepository;
 import ru.practicum.shareit.server.user.User;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,7 +27,11 @@ import java.util.stream.Collectors;
 public class ItemRequestService {
     private final ItemRequestRepository itemRequestRepository;
     private final UserRepository userRepository;
+    private final UserExistenceCache userExistenceCache;
     private final ItemRepository itemRepository;
+    private final ItemRequestBroadcaster itemRequestBroadcaster;
+    private final ItemRequestMatcher itemRequestMatcher;
+    private final ItemRequestMatchRepository itemRequestMatchRepository;
 
     public ItemRequestDto createRequest(ItemRequestDto requestDto, Long requestorId) {
         User requestor = userRepository.findById(requestorId)
@@ -40,26 +49,36 @@ public class ItemRequestService {
         }
 
         ItemRequest savedRequest = itemRequestRepository.save(request);
-        return ItemRequestMapper.toItemRequestDto(savedRequest);
+        itemRequestMatcher.requestCreated(savedRequest);
+        ItemRequestDto created = ItemRequestMapper.toItemRequestDto(savedRequest);
+        itemRequestBroadcaster.requestCreated(created);
+        return created;
+    }
+
+    public SseEmitter subscribe(Long userId) {
+        if (!userExistenceCache.exists(userId)) {
+            throw new NotFoundException("Пользователь не найден");
+        }
+        return itemRequestBroadcaster.subscribe(userId);
     }
 
 
     public List<ItemRequestDto> getUserRequests(Long requestorId) {
-        userRepository.findById(requestorId)
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+        if (!userExistenceCache.exists(requestorId)) {
+            throw new NotFoundException("Пользователь не найден");
+        }
 
         List<ItemRequest> requests = itemRequestRepository.findByRequestorId(
                 requestorId, Sort.by(Sort.Direction.DESC, "created"));
 
-        return requests.stream()
-                .map(request -> mapItemRequestToDtoWithItems(request)) // Используем перенесенный приватный метод
-                .collect(Collectors.toList());
+        return mapItemRequestsToDtosWithItems(requests);
     }
 
 
     public List<ItemRequestDto> getAllRequests(Long userId, int from, int size) {
-        userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+        if (!userExistenceCache.exists(userId)) {
+            throw new NotFoundException("Пользователь не найден");
+        }
 
         if (from < 0) {
             throw new ValidationException("Параметр 'from' не может быть отрицательным");
@@ -68,30 +87,19 @@ public class ItemRequestService {
             throw new ValidationException("Параметр 'size' должен быть положительным");
         }
 
-        List<ItemRequest> requests = itemRequestRepository.findByRequestorIdNot(
-                userId, Sort.by(Sort.Direction.DESC, "created"));
-
-        // Логика пагинации переносится сюда:
-        // Важно: skip/limit работают с уже загруженными из БД данными.
-        // Для эффективной пагинации следует использовать Pageable в репозитории.
-        // Здесь предполагается, что список requests может быть большим.
-        // Если запросов очень много, то лучше использовать PageRequest в findAll
-        // For example: itemRequestRepository.findAll(PageRequest.of(from / size, size, Sort.by(Sort.Direction.DESC, "created")));
-        List<ItemRequest> paginatedRequests = requests.stream()
-                .skip(from)
-                .limit(size)
-                .toList();
-
-        return paginatedRequests.stream()
-                .map(request -> mapItemRequestToDtoWithItems(request)) // Используем перенесенный приватный метод
-                .collect(Collectors.toList());
+        // Страница выбирается в БД: индекс requests (created DESC, id DESC) отдаёт её без сортировки всей таблицы
+        List<ItemRequest> requests = itemRequestRepository.findByRequestorIdNot(userId, OffsetPageRequest.of(from, size,
+                Sort.by(Sort.Direction.DESC, "created").and(Sort.by(Sort.Direction.DESC, "id"))));
+
+        return mapItemRequestsToDtosWithItems(requests);
     }
 
 
     public ItemRequestDto getRequestById(Long requestId, Long userId) {
         // Проверка существования пользователя остается в сервисе, т.к. это бизнес-логика.
-        userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("Пользователь с ID " + userId + " не найден"));
+        if (!userExistenceCache.exists(userId)) {
+            throw new NotFoundException("Пользователь с ID " + userId + " не найден");
+        }
 
         ItemRequest request = itemRequestRepository.findById(requestId)
                 .orElseThrow(() -> new NotFoundException("Запрос с ID " + requestId + " не найден"));
@@ -99,6 +107,16 @@ public class ItemRequestService {
         return mapItemRequestToDtoWithItems(request);
     }
 
+    // Вещи, автоматически подобранные под запрос. Видны только автору запроса
+    public List<ItemDto> getMatches(Long requestId, Long userId) {
+        ItemRequest request = itemRequestRepository.findById(requestId)
+                .orElseThrow(() -> new NotFoundException("Запрос с ID " + requestId + " не найден"));
+        if (!request.getRequestor().getId().equals(userId)) {
+            throw new NotFoundException("Подобранные вещи видны только автору запроса");
+        }
+        return ItemMapper.toItemDtoList(itemRequestMatchRepository.findAvailableItemsByRequestId(requestId));
+    }
+
     // Приватный хелпер-метод для маппинга ItemRequest в ItemRequestDto с прикрепленными предметами.
     private ItemRequestDto mapItemRequestToDtoWithItems(ItemRequest request) {
         List<Item> items = itemRepository.findByRequestId(request.getId());
@@ -106,4 +124,19 @@ public class ItemRequestService {
 
         return ItemRequestMapper.toItemRequestDtoWithItems(request, itemDtos); // Используем ItemRequestMapper
     }
+
+    // То же для набора запросов: ответы на все запросы загружаются одним запросом и раскладываются в памяти
+    private List<ItemRequestDto> mapItemRequestsToDtosWithItems(List<ItemRequest> requests) {
+        if (requests.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> requestIds = requests.stream().map(ItemRequest::getId).toList();
+        Map<Long, List<Item>> itemsByRequest = itemRepository.findByRequestIdIn(requestIds).stream()
+                .collect(Collectors.groupingBy(item -> item.getRequest().getId()));
+
+        return requests.stream()
+                .map(request -> ItemRequestMapper.toItemRequestDtoWithItems(request,
+                        ItemMapper.toItemDtoList(itemsByRequest.getOrDefault(request.getId(), List.of()))))
+                .collect(Collectors.toList());
+    }
 }
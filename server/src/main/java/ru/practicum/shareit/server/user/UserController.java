@@ -1,11 +1,17 @@
 package ru.practicum.shareit.server.user;
 
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.server.common.Cursors;
 import ru.practicum.shareit.server.exceptions.UserNotFoundException;
+import ru.practicum.shareit.server.exceptions.ValidationException;
 import ru.practicum.shareit.server.user.dto.UserDto;
 
 import java.util.List;
@@ -17,6 +23,7 @@ import java.util.List;
 public class UserController {
 
     private final UserService userService;
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
 
     @PostMapping
     public UserDto createUser(@RequestBody UserDto userDto) {
@@ -38,10 +45,38 @@ public class UserController {
         return userService.getUser(userId); // Тоже самое
     }
 
-    @GetMapping
-    public List<UserDto> getAllUsers() {
+    // Без параметров страницы - все пользователи, как и раньше, но JSON-массив пишется потоком
+    @GetMapping(params = {"!from", "!size", "!cursor"})
+    public ResponseEntity<StreamingResponseBody> getAllUsers(HttpServletRequest request) {
         log.info("Получение всех пользователей");
-        return userService.getAllUsers();
+        // ETag по содержимому потребовал бы буферизовать весь список
+        ShallowEtagHeaderFilter.disableContentCaching(request);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(userService::writeAllUsers);
+    }
+
+    // Страница пользователей по возрастанию id; cursor из X-Next-Cursor продолжает предыдущую страницу
+    @GetMapping
+    public ResponseEntity<List<UserDto>> getUsersPage(@RequestParam(defaultValue = "0") Integer from,
+                                                      @RequestParam(defaultValue = "100") Integer size,
+                                                      @RequestParam(required = false) String cursor) {
+        log.info("Получение пользователей: from={}, size={}, cursor={}", from, size, cursor);
+        List<UserDto> users = userService.getAllUsers(from, size, decodeCursor(cursor));
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!users.isEmpty() && users.size() == size) {
+            response.header(NEXT_CURSOR_HEADER, Cursors.encode(String.valueOf(users.getLast().getId())));
+        }
+        return response.body(users);
+    }
+
+    // Выгрузка всех пользователей в NDJSON потоком, без сборки списка в памяти
+    @GetMapping(path = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        log.info("Выгрузка всех пользователей");
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(userService::exportUsers);
     }
 
     @DeleteMapping("/{userId}")
@@ -51,6 +86,17 @@ public class UserController {
         return new ResponseEntity<>(HttpStatus.NO_CONTENT); // 204 No Content  // Возвращаем ResponseEntity
     }
 
+    private static Long decodeCursor(String cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(Cursors.decode(cursor));
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Некорректный курсор");
+        }
+    }
+
     @ExceptionHandler(UserNotFoundException.class)
     public ResponseEntity<String> handleUserNotFoundException(UserNotFoundException ex) {
         Long userId = ex.getUserId();
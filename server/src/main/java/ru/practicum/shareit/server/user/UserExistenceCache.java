@@ -0,0 +1,184 @@
+package ru.practicum.shareit.server.user;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.server.common.LongBloomFilter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Проверка существования пользователя без обращения к БД в типичном случае.
+// Фильтр Блума по всем id отсекает несуществующих, ограниченный кэш помнит недавно проверенных существующих.
+// В БД идём только при промахе кэша, когда фильтр отвечает "возможно есть" (в т.ч. для удалённых).
+// Пользователей, добавленных в обход этого экземпляра (другой экземпляр сервера, миграция, репозиторий),
+// фильтр узнаёт из БД: id больше загруженных догружаются при промахе, остальные - периодическим пересканом.
+@Component
+@Slf4j
+public class UserExistenceCache {
+    private static final int LOAD_BATCH = 10_000;
+
+    private final UserRepository userRepository;
+    private final LongBloomFilter knownIds;
+    private final Cache<Long, Boolean> existing;
+    private final Counter bloomNegative;
+    private final Counter cacheHit;
+    private final Counter dbFound;
+    private final Counter dbMissing;
+    private final Duration rescanInterval;
+    private final ScheduledExecutorService loader;
+    // Наибольший id, до которого фильтр заполнен из БД; id, созданные этим экземпляром, сюда не входят
+    private final AtomicLong loadedUpTo = new AtomicLong();
+    private final ReentrantLock catchUpLock = new ReentrantLock();
+    private volatile boolean ready;
+
+    public UserExistenceCache(UserRepository userRepository,
+                              @Value("${shareit.user-cache.expected-users:1000000}") long expectedUsers,
+                              @Value("${shareit.user-cache.max-size:100000}") long maxSize,
+                              @Value("${shareit.user-cache.ttl:10m}") Duration ttl,
+                              @Value("${shareit.user-cache.rescan-interval:10m}") Duration rescanInterval,
+                              MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.knownIds = new LongBloomFilter(expectedUsers, 0.01);
+        this.existing = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+        this.bloomNegative = lookups(meterRegistry, "bloom_negative");
+        this.cacheHit = lookups(meterRegistry, "cache_hit");
+        this.dbFound = lookups(meterRegistry, "db_found");
+        this.dbMissing = lookups(meterRegistry, "db_missing");
+        this.rescanInterval = rescanInterval;
+        this.loader = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("user-existence-load")
+                .daemon()
+                .factory());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadInBackground() {
+        loader.execute(this::load);
+        loader.scheduleWithFixedDelay(this::rescan, rescanInterval.toMillis(), rescanInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void close() {
+        loader.shutdownNow();
+    }
+
+    public boolean exists(Long userId) {
+        // Пока фильтр не заполнен, его "нет" ничего не значит
+        if (ready && !knownIds.mightContain(userId) && !caughtUp(userId)) {
+            bloomNegative.increment();
+            return false;
+        }
+        if (existing.getIfPresent(userId) != null) {
+            cacheHit.increment();
+            return true;
+        }
+        // Загрузка атомарна по ключу, поэтому evict при удалении не разминётся с ней
+        Boolean found = existing.get(userId, id -> userRepository.existsById(id) ? Boolean.TRUE : null);
+        (found != null ? dbFound : dbMissing).increment();
+        return found != null;
+    }
+
+    boolean isReady() {
+        return ready;
+    }
+
+    public void userCreated(Long userId) {
+        knownIds.add(userId);
+    }
+
+    public void userDeleted(Long userId) {
+        existing.invalidate(userId);
+        // До фиксации удаления параллельный запрос ещё может увидеть пользователя и закэшировать его
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    existing.invalidate(userId);
+                }
+            });
+        }
+    }
+
+    // id выдаются по возрастанию, поэтому чужой новый пользователь почти всегда выше загруженного:
+    // одним запросом догружаем хвост. Одновременные промахи ждут один запрос, а не идут в БД все.
+    private boolean caughtUp(long userId) {
+        if (userId <= loadedUpTo.get()) {
+            return false;
+        }
+        catchUpLock.lock();
+        try {
+            long loaded = loadedUpTo.get();
+            if (userId > loaded) {
+                loadedUpTo.accumulateAndGet(scan(loaded), Math::max);
+            }
+        } finally {
+            catchUpLock.unlock();
+        }
+        return knownIds.mightContain(userId);
+    }
+
+    private void load() {
+        try {
+            long loaded = scan(0);
+            loadedUpTo.accumulateAndGet(loaded, Math::max);
+            ready = true;
+            log.info("Фильтр существующих пользователей заполнен до id {}", loaded);
+        } catch (RuntimeException e) {
+            log.error("Не удалось заполнить фильтр пользователей, проверки идут через кэш и БД", e);
+        }
+    }
+
+    // Полный проход подбирает id ниже загруженного: вставленные миграцией с явным id
+    // или зафиксированные позже транзакции с большим id
+    private void rescan() {
+        if (!ready) {
+            load();
+            return;
+        }
+        try {
+            loadedUpTo.accumulateAndGet(scan(0), Math::max);
+        } catch (RuntimeException e) {
+            log.warn("Не удалось обновить фильтр пользователей: {}", e.getMessage());
+        }
+    }
+
+    // Добавляет в фильтр все id больше afterId, возвращает наибольший из них
+    private long scan(long afterId) {
+        List<Long> batch;
+        do {
+            batch = userRepository.findIdsAfter(afterId, PageRequest.of(0, LOAD_BATCH));
+            batch.forEach(knownIds::add);
+            if (!batch.isEmpty()) {
+                afterId = batch.getLast();
+            }
+        } while (batch.size() == LOAD_BATCH);
+        return afterId;
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("shareit.user.exists")
+                .tag("result", result)
+                .description("Проверки существования пользователя; db_* - обращения к БД")
+                .register(meterRegistry);
+    }
+}
@@ -2,6 +2,8 @@ package ru.practicum.shareit.server.user;
 
 import ru.practicum.shareit.server.user.dto.UserDto;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 public interface UserService {
@@ -12,7 +14,11 @@ public interface UserService {
 
     UserDto getUser(Long userId);
 
-    List<UserDto> getAllUsers();
+    List<UserDto> getAllUsers(int from, int size, Long afterId);
+
+    void writeAllUsers(OutputStream output) throws IOException;
+
+    void exportUsers(OutputStream output) throws IOException;
 
     void deleteUser(Long userId);
 
@@ -1,17 +1,24 @@
 package ru.practicum.shareit.server.user;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.server.common.OffsetPageRequest;
 import ru.practicum.shareit.server.exceptions.ConflictException;
 import ru.practicum.shareit.server.exceptions.NotFoundException;
 import ru.practicum.shareit.server.exceptions.ValidationException;
 import ru.practicum.shareit.server.user.dto.UserDto;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -19,7 +26,10 @@ import java.util.stream.Collectors;
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
+    private final UserExistenceCache userExistenceCache;
     private final UserMapper userMapper;  // Предполагаем, что UserMapper существует и правильно настроен
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
     private static final Pattern EMAIL_PATTERN = Pattern.compile("^[A-Z0-9._%+-]+@[A-Z0-9.-]+\\.[A-Z]{2,6}$", Pattern.CASE_INSENSITIVE);
 
     @Override
@@ -32,6 +42,7 @@ public class UserServiceImpl implements UserService {
 
         User user = userMapper.toEntity(userDto);  // Используем UserMapper
         User savedUser = userRepository.save(user);
+        userExistenceCache.userCreated(savedUser.getId());
         return userMapper.toDto(savedUser);  // Используем UserMapper
     }
 
@@ -85,12 +96,57 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    public List<UserDto> getAllUsers() {
-        return userRepository.findAll().stream()
+    public List<UserDto> getAllUsers(int from, int size, Long afterId) {
+        if (from < 0) {
+            throw new ValidationException("Параметр 'from' не может быть отрицательным");
+        }
+        if (size <= 0) {
+            throw new ValidationException("Параметр 'size' должен быть положительным");
+        }
+        // С курсором страница начинается сразу после него, from учитывается только без курсора
+        List<User> users = afterId != null
+                ? userRepository.findByIdGreaterThanOrderByIdAsc(afterId, OffsetPageRequest.of(0, size))
+                : userRepository.findByIdGreaterThanOrderByIdAsc(0L, OffsetPageRequest.of(from, size));
+        return users.stream()
                 .map(userMapper::toDto)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public void writeAllUsers(OutputStream output) throws IOException {
+        output.write('[');
+        writeUsers(output, true);
+        output.write(']');
+        output.flush();
+    }
+
+    @Override
+    public void exportUsers(OutputStream output) throws IOException {
+        // По одному JSON на строку
+        writeUsers(output, false);
+        output.flush();
+    }
+
+    // Прочитанных пользователей убираем из контекста, чтобы память не росла
+    private void writeUsers(OutputStream output, boolean jsonArray) throws IOException {
+        try (Stream<User> users = userRepository.streamAll()) {
+            Iterator<User> iterator = users.iterator();
+            boolean first = true;
+            while (iterator.hasNext()) {
+                User user = iterator.next();
+                if (jsonArray && !first) {
+                    output.write(',');
+                }
+                output.write(objectMapper.writeValueAsBytes(userMapper.toDto(user)));
+                if (!jsonArray) {
+                    output.write('\n');
+                }
+                first = false;
+                entityManager.detach(user);
+            }
+        }
+    }
+
     @Override
     @Transactional
     public void deleteUser(Long userId) {
@@ -98,6 +154,7 @@ public class UserServiceImpl implements UserService {
             throw new NotFoundException("Пользователь с id: " + userId + " не найден");
         }
         userRepository.deleteById(userId);
+        userExistenceCache.userDeleted(userId);
     }
 
     private User getUserEntityById(Long userId) {
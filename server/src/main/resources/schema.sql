@@ -49,3 +49,32 @@ CREATE TABLE IF NOT EXISTS comments (
     CONSTRAINT fk_comments_item_id FOREIGN KEY (item_id) REFERENCES items(id),
     CONSTRAINT fk_comments_author_id FOREIGN KEY (author_id) REFERENCES users(id)
 );
+
+-- Индексы для постраничной выдачи бронирований в порядке (start_date DESC, id DESC)
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings (booker_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_start ON bookings (item_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_items_owner ON items (owner_id);
+
+-- Версии строк для оптимистической блокировки
+ALTER TABLE items ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+-- Поиск последнего и следующего подтверждённого бронирования вещи
+CREATE INDEX IF NOT EXISTS idx_bookings_item_status_end ON bookings (item_id, status, end_date DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_status_start ON bookings (item_id, status, start_date);
+
+-- Постраничная выдача чужих запросов и ответы на запросы
+CREATE INDEX IF NOT EXISTS idx_requests_created ON requests (created DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_items_request ON items (request_id);
+
+-- Вещи, автоматически подобранные под открытые запросы
+CREATE TABLE IF NOT EXISTS request_matches (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    request_id BIGINT NOT NULL,
+    item_id BIGINT NOT NULL,
+    score DOUBLE PRECISION NOT NULL,
+    created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    CONSTRAINT fk_match_request FOREIGN KEY (request_id) REFERENCES requests(id),
+    CONSTRAINT fk_match_item FOREIGN KEY (item_id) REFERENCES items(id),
+    CONSTRAINT uq_match_request_item UNIQUE (request_id, item_id)
+);
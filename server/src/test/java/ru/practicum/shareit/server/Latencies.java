@@ -0,0 +1,34 @@
+package ru.practicum.shareit.server;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+// Замеры бенчмарков: длительность каждого вызова и перцентили по ним
+public final class Latencies {
+    private final long[] samples;
+    private int count;
+
+    public Latencies(int capacity) {
+        this.samples = new long[capacity];
+    }
+
+    public <T> T measure(Supplier<T> call) {
+        long started = System.nanoTime();
+        T result = call.get();
+        samples[count++] = System.nanoTime() - started;
+        return result;
+    }
+
+    public double percentileMillis(double percentile) {
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int index = Math.max(0, (int) Math.ceil(percentile / 100 * count) - 1);
+        return sorted[index] / 1_000_000.0;
+    }
+
+    public String summary() {
+        return String.format(Locale.ROOT, "p50 %.3f мс, p99 %.3f мс, max %.3f мс (%d замеров)",
+                percentileMillis(50), percentileMillis(99), percentileMillis(100), count);
+    }
+}
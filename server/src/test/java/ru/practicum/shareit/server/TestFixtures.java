@@ -0,0 +1,35 @@
+package ru.practicum.shareit.server;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import ru.practicum.shareit.server.user.UserService;
+import ru.practicum.shareit.server.user.dto.UserDto;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Общие данные тестов. H2 одна на все контексты запуска, поэтому e-mail должен быть уникален во всём запуске
+public final class TestFixtures {
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private TestFixtures() {
+    }
+
+    public static String uniqueEmail(String name) {
+        return name + "-" + SEQUENCE.incrementAndGet() + "-" + System.nanoTime() + "@mail.ru";
+    }
+
+    // Через сервис, чтобы пользователь сразу попал в фильтр существующих пользователей
+    public static UserDto createUser(UserService userService, String name) {
+        return userService.createUser(UserDto.builder()
+                .name(name)
+                .email(uniqueEmail(name))
+                .build());
+    }
+
+    public static double sseSubscribers(MeterRegistry meterRegistry, String hub) {
+        return meterRegistry.get("shareit.sse.subscribers").tag("hub", hub).gauge().value();
+    }
+
+    public static double sseDropped(MeterRegistry meterRegistry, String hub) {
+        return meterRegistry.get("shareit.sse.dropped").tag("hub", hub).counter().count();
+    }
+}
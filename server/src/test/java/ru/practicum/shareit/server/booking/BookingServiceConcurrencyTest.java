@@ -0,0 +1,146 @@
+package ru.practicum.shareit.server.booking;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.server.booking.dto.BookingDto;
+import ru.practicum.shareit.server.exceptions.ConflictException;
+import ru.practicum.shareit.server.item.Item;
+import ru.practicum.shareit.server.item.ItemRepository;
+import ru.practicum.shareit.server.user.User;
+import ru.practicum.shareit.server.user.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static ru.practicum.shareit.server.TestFixtures.uniqueEmail;
+
+@SpringBootTest
+class BookingServiceConcurrencyTest {
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void parallelOverlappingBookingsCreateExactlyOne() throws Exception {
+        Item item = item(user());
+        int threads = 32;
+        List<User> bookers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            bookers.add(user());
+        }
+        LocalDateTime start = LocalDateTime.now().plusDays(3).withNano(0);
+
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int i = 0; i < threads; i++) {
+                Long bookerId = bookers.get(i).getId();
+                // Окна сдвинуты друг относительно друга, но все попарно пересекаются
+                LocalDateTime from = start.plusHours(i % 4);
+                results.add(executor.submit(() -> {
+                    go.await();
+                    try {
+                        bookingService.createBooking(bookingDto(item, from, from.plusHours(5)), bookerId);
+                        return true;
+                    } catch (ConflictException e) {
+                        return false;
+                    }
+                }));
+            }
+            go.countDown();
+            int created = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get()) {
+                    created++;
+                }
+            }
+            assertThat(created).isEqualTo(1);
+        }
+        assertThat(activeBookingsOf(item)).isEqualTo(1);
+    }
+
+    @Test
+    void overlappingRowsFromDatabaseAreAllChecked() {
+        Item item = item(user());
+        User booker = user();
+        LocalDateTime start = LocalDateTime.now().plusDays(10).withNano(0);
+        // Пересекающиеся бронирования, сохранённые до появления индекса: длинное и короткое внутри него
+        save(item, booker, start, start.plusHours(10), BookingStatus.APPROVED);
+        save(item, booker, start.plusHours(1), start.plusHours(2), BookingStatus.WAITING);
+
+        assertThatThrownBy(() -> bookingService.createBooking(
+                bookingDto(item, start.plusHours(5), start.plusHours(6)), user().getId()))
+                .isInstanceOf(ConflictException.class);
+        bookingService.createBooking(bookingDto(item, start.plusHours(10), start.plusHours(11)), user().getId());
+    }
+
+    @Test
+    void rejectedBookingFreesWindow() {
+        User owner = user();
+        Item item = item(owner);
+        LocalDateTime start = LocalDateTime.now().plusDays(5).withNano(0);
+        BookingDto first = bookingService.createBooking(bookingDto(item, start, start.plusHours(2)), user().getId());
+        assertThatThrownBy(() -> bookingService.createBooking(
+                bookingDto(item, start.plusHours(1), start.plusHours(3)), user().getId()))
+                .isInstanceOf(ConflictException.class);
+
+        bookingService.approveBooking(first.getId(), owner.getId(), false);
+
+        bookingService.createBooking(bookingDto(item, start.plusHours(1), start.plusHours(3)), user().getId());
+    }
+
+    private User user() {
+        return userRepository.save(User.builder()
+                .name("booker")
+                .email(uniqueEmail("concurrency"))
+                .build());
+    }
+
+    private Item item(User owner) {
+        return itemRepository.save(Item.builder()
+                .name("Drill")
+                .description("Cordless drill")
+                .available(true)
+                .owner(owner)
+                .build());
+    }
+
+    private void save(Item item, User booker, LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        bookingRepository.save(Booking.builder()
+                .item(item)
+                .booker(booker)
+                .start(start)
+                .end(end)
+                .status(status)
+                .build());
+    }
+
+    private long activeBookingsOf(Item item) {
+        return bookingRepository.findAll().stream()
+                .filter(booking -> booking.getItem().getId().equals(item.getId()))
+                .filter(booking -> booking.getStatus() != BookingStatus.REJECTED)
+                .count();
+    }
+
+    private static BookingDto bookingDto(Item item, LocalDateTime start, LocalDateTime end) {
+        return BookingDto.builder()
+                .itemId(item.getId())
+                .start(start)
+                .end(end)
+                .build();
+    }
+}
@@ -0,0 +1,121 @@
+package ru.practicum.shareit.server.booking;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.server.booking.dto.BookingDto;
+import ru.practicum.shareit.server.item.Item;
+import ru.practicum.shareit.server.item.ItemRepository;
+import ru.practicum.shareit.server.user.UserRepository;
+import ru.practicum.shareit.server.user.UserService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static ru.practicum.shareit.server.TestFixtures.createUser;
+import static ru.practicum.shareit.server.TestFixtures.sseDropped;
+import static ru.practicum.shareit.server.TestFixtures.sseSubscribers;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// 10 000 одновременных подписок на статусы бронирований: решение владельца доходит только до потоков автора
+@SpringBootTest
+@AutoConfigureMockMvc
+class BookingStatusStreamLoadTest {
+    private static final int BOOKERS = 1000;
+    private static final int SUBSCRIPTIONS_PER_BOOKER = 10;
+    private static final int DECISIONS = 100;
+    private static final String HUB = "bookings";
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void tenThousandSubscribersGetOnlyTheirOwnDecisions() throws Exception {
+        double subscribersBefore = sseSubscribers(meterRegistry, HUB);
+        double droppedBefore = sseDropped(meterRegistry, HUB);
+        Long ownerId = createUser(userService, "owner").getId();
+        Item item = itemRepository.save(Item.builder()
+                .name("Tent")
+                .description("Tent for four")
+                .available(true)
+                .owner(userRepository.findById(ownerId).orElseThrow())
+                .build());
+
+        List<Long> bookers = new ArrayList<>();
+        List<List<MockHttpServletResponse>> streams = new ArrayList<>();
+        for (int i = 0; i < BOOKERS; i++) {
+            Long bookerId = createUser(userService, "booker").getId();
+            List<MockHttpServletResponse> bookerStreams = new ArrayList<>();
+            for (int j = 0; j < SUBSCRIPTIONS_PER_BOOKER; j++) {
+                MvcResult result = mvc.perform(get("/bookings/subscribe").header("X-Sharer-User-Id", bookerId))
+                        .andReturn();
+                assertThat(result.getRequest().isAsyncStarted()).isTrue();
+                bookerStreams.add(result.getResponse());
+            }
+            bookers.add(bookerId);
+            streams.add(bookerStreams);
+        }
+        assertThat(sseSubscribers(meterRegistry, HUB) - subscribersBefore)
+                .isEqualTo(BOOKERS * SUBSCRIPTIONS_PER_BOOKER);
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+        List<Long> bookingIds = new ArrayList<>();
+        for (int i = 0; i < DECISIONS; i++) {
+            BookingDto booking = bookingService.createBooking(BookingDto.builder()
+                    .itemId(item.getId())
+                    .start(start.plusDays(i))
+                    .end(start.plusDays(i).plusHours(1))
+                    .build(), bookers.get(i));
+            bookingIds.add(booking.getId());
+        }
+
+        long started = System.nanoTime();
+        for (int i = 0; i < DECISIONS; i++) {
+            bookingService.approveBooking(bookingIds.get(i), ownerId, i % 2 == 0);
+        }
+        long deadline = started + TimeUnit.SECONDS.toNanos(10);
+        int delivered = 0;
+        while (delivered < DECISIONS * SUBSCRIPTIONS_PER_BOOKER && System.nanoTime() < deadline) {
+            delivered = 0;
+            for (int i = 0; i < DECISIONS; i++) {
+                String eventId = "id:" + bookingIds.get(i) + "\n";
+                for (MockHttpServletResponse stream : streams.get(i)) {
+                    if (stream.getContentAsString().contains(eventId)) {
+                        delivered++;
+                    }
+                }
+            }
+            if (delivered < DECISIONS * SUBSCRIPTIONS_PER_BOOKER) {
+                Thread.sleep(50);
+            }
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        assertThat(delivered).as("доставлено за %d мс", elapsedMillis)
+                .isEqualTo(DECISIONS * SUBSCRIPTIONS_PER_BOOKER);
+        for (int i = DECISIONS; i < BOOKERS; i++) {
+            for (MockHttpServletResponse stream : streams.get(i)) {
+                assertThat(stream.getContentAsString()).doesNotContain("event:booking");
+            }
+        }
+        assertThat(sseDropped(meterRegistry, HUB)).isEqualTo(droppedBefore);
+    }
+}
@@ -0,0 +1,60 @@
+package ru.practicum.shareit.server.item;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Синтетический каталог для бенчмарков поиска: вещи вставляются в БД пачками в обход JPA.
+// Слова собраны из слогов и встречаются неравномерно: первые - в процентах вещей, последние - в единицах.
+final class BenchmarkCatalog {
+    static final int WORDS = 2000;
+    static final int ITEMS = Integer.getInteger("benchmark.items", 1_000_000);
+    private static final int INSERT_BATCH = 10_000;
+    private static final String[] SYLLABLES = {"ка", "ро", "ли", "ту", "не", "ма", "во", "ди", "са", "пе",
+            "бу", "зо", "ги", "фа", "хе", "чу", "ша", "жи", "це", "ны"};
+
+    private final Random random = new Random(42);
+    private final String[] words = new String[WORDS];
+
+    BenchmarkCatalog() {
+        for (int i = 0; i < WORDS; i++) {
+            StringBuilder word = new StringBuilder();
+            for (int j = 0, length = 2 + random.nextInt(3); j < length; j++) {
+                word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            words[i] = word.append(i).toString();
+        }
+    }
+
+    String word(int index) {
+        return words[index];
+    }
+
+    Random random() {
+        return random;
+    }
+
+    // Название из двух слов, описание из пяти, каждая десятая вещь недоступна
+    void insertItems(JdbcTemplate jdbcTemplate, long ownerId) {
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH);
+        for (int i = 0; i < ITEMS; i++) {
+            batch.add(new Object[]{text(2), text(5), random.nextInt(10) != 0, ownerId});
+            if (batch.size() == INSERT_BATCH || i == ITEMS - 1) {
+                jdbcTemplate.batchUpdate(
+                        "INSERT INTO items (name, description, available, owner_id) VALUES (?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private String text(int wordCount) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < wordCount; i++) {
+            double skew = random.nextDouble();
+            text.append(i > 0 ? " " : "").append(words[(int) (WORDS * skew * skew)]);
+        }
+        return text.toString();
+    }
+}
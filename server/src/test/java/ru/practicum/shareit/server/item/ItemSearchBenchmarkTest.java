@@ -0,0 +1,81 @@
+package ru.practicum.shareit.server.item;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.server.Latencies;
+import ru.practicum.shareit.server.common.OffsetPageRequest;
+import ru.practicum.shareit.server.user.UserService;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static ru.practicum.shareit.server.TestFixtures.createUser;
+
+// Поиск по триграммному индексу против LIKE '%text%' на миллионе вещей:
+// mvn -Pbenchmark test -pl server -Dtest=ItemSearchBenchmarkTest [-Dbenchmark.items=...]
+@Tag("benchmark")
+@ActiveProfiles({"test", "benchmark"})
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:item-search-benchmark;DB_CLOSE_DELAY=-1")
+@Slf4j
+class ItemSearchBenchmarkTest {
+    private static final int PAGE = 10;
+    private static final int INDEX_RUNS = 200;
+    private static final int LIKE_RUNS = 5;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private ItemSearchIndex itemSearchIndex;
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void indexAgainstLike() {
+        BenchmarkCatalog catalog = new BenchmarkCatalog();
+        long started = System.nanoTime();
+        catalog.insertItems(jdbcTemplate, createUser(userService, "benchmark-owner").getId());
+        log.info("Вставлено {} вещей за {} с", BenchmarkCatalog.ITEMS,
+                TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - started));
+
+        started = System.nanoTime();
+        itemSearchIndex.rebuild();
+        log.info("Индекс построен за {} с", TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - started));
+
+        // Частое слово, редкое слово, кусок на стыке слов и запрос без совпадений
+        List<String> queries = List.of(catalog.word(0), catalog.word(BenchmarkCatalog.WORDS - 1),
+                catalog.word(1).substring(2) + " " + catalog.word(2).substring(0, 2), "щъыь");
+        for (String query : queries) {
+            Set<Long> like = new HashSet<>();
+            itemRepository.searchAvailableItems(query, Pageable.unpaged()).forEach(item -> like.add(item.getId()));
+            assertThat(new HashSet<>(itemSearchIndex.search(query, 0, Integer.MAX_VALUE))).as(query).isEqualTo(like);
+
+            Latencies index = new Latencies(INDEX_RUNS);
+            for (int i = 0; i < INDEX_RUNS; i++) {
+                // Как в ItemServiceImpl без кэша: страница id из индекса и вещи по ним из БД
+                index.measure(() -> itemRepository.findAllById(itemSearchIndex.search(query, 0, PAGE)));
+            }
+            Latencies scan = new Latencies(LIKE_RUNS);
+            for (int i = 0; i < LIKE_RUNS; i++) {
+                scan.measure(() -> itemRepository.searchAvailableItems(query,
+                        OffsetPageRequest.of(0, PAGE, Sort.by("id"))));
+            }
+            log.info("'{}': {} совпадений; индекс {}; LIKE {}", query, like.size(), index.summary(), scan.summary());
+            // LIKE с LIMIT останавливается на первых совпадениях, выигрыш индекса гарантирован при полном проходе
+            if (like.size() < PAGE) {
+                assertThat(index.percentileMillis(50)).as(query).isLessThan(scan.percentileMillis(50));
+            }
+        }
+    }
+}
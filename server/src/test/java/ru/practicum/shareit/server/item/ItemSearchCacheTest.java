@@ -0,0 +1,78 @@
+package ru.practicum.shareit.server.item;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.server.item.dto.ItemDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ItemSearchCacheTest {
+    private final ItemSearchCache cache = new ItemSearchCache(1 << 20, new SimpleMeterRegistry());
+
+    @Test
+    void resultComputedBeforeInvalidationIsNotCached() {
+        long generation = cache.generation();
+        cache.invalidate(null, item("Drill", "Cordless drill"));
+
+        cache.put("drill", 0, 10, List.of(dto("Drill")), generation);
+
+        assertThat(cache.get("drill", 0, 10)).isNull();
+    }
+
+    @Test
+    void invalidationDropsOnlyQueriesInOldOrNewText() {
+        long generation = cache.generation();
+        cache.put("drill", 0, 10, List.of(dto("Drill")), generation);
+        cache.put("ladder", 0, 10, List.of(dto("Ladder")), generation);
+        cache.put("tent", 0, 10, List.of(dto("Tent")), generation);
+
+        cache.invalidate(item("Old DRILL", null), item("New", "Folding ladder"));
+
+        assertThat(cache.get("drill", 0, 10)).isNull();
+        assertThat(cache.get("ladder", 0, 10)).isNull();
+        assertThat(cache.get("tent", 0, 10)).isNotNull();
+    }
+
+    // Запись, начатая до инвалидации, не переживает её
+    @Test
+    void concurrentPutNeverOutlivesInvalidation() throws Exception {
+        Item changed = item("Drill", "Cordless drill");
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            for (int round = 0; round < 2000; round++) {
+                long generation = cache.generation();
+                CountDownLatch go = new CountDownLatch(1);
+                List<Future<?>> tasks = new ArrayList<>();
+                tasks.add(executor.submit(() -> {
+                    go.await();
+                    cache.put("drill", 0, 10, List.of(dto("Drill")), generation);
+                    return null;
+                }));
+                tasks.add(executor.submit(() -> {
+                    go.await();
+                    cache.invalidate(null, changed);
+                    return null;
+                }));
+                go.countDown();
+                for (Future<?> task : tasks) {
+                    task.get();
+                }
+                assertThat(cache.get("drill", 0, 10)).as("раунд %d", round).isNull();
+            }
+        }
+    }
+
+    private static Item item(String name, String description) {
+        return Item.builder().name(name).description(description).available(true).build();
+    }
+
+    private static ItemDto dto(String name) {
+        return ItemDto.builder().name(name).available(true).build();
+    }
+}
@@ -0,0 +1,43 @@
+package ru.practicum.shareit.server.item;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ItemSearchIndexTest {
+    private final ItemSearchIndex index = new ItemSearchIndex(null);
+
+    @Test
+    void ranksByNameThenDescriptionHitsThenId() {
+        index.index(item(1, "Tent", "Drill bits", true));
+        index.index(item(2, "Drill", "Cordless drill", true));
+        index.index(item(3, "Drill", "Hammer", true));
+        index.index(item(4, "Drill drill", "", true));
+        index.index(item(5, "Drill", "Drill", false));
+
+        assertThat(index.search("drill", 0, 10)).containsExactly(4L, 2L, 3L, 1L);
+        assertThat(index.search("DRILL", 1, 2)).containsExactly(2L, 3L);
+        assertThat(index.search("drill", 4, 10)).isEmpty();
+    }
+
+    @Test
+    void matchesSubstringsAcrossAllTrigrams() {
+        index.index(item(1, "Folding ladder", null, true));
+        index.index(item(2, "Ladle", "Soup ladle", true));
+
+        assertThat(index.search("ladde", 0, 10)).containsExactly(1L);
+        assertThat(index.search("lad", 0, 10)).containsExactly(2L, 1L);
+        assertThat(index.search("laddle", 0, 10)).isEmpty();
+    }
+
+    @Test
+    void shortQueriesAreNotServed() {
+        index.index(item(1, "Axe", "Ax", true));
+
+        assertThat(index.search("ax", 0, 10)).isEmpty();
+    }
+
+    private static Item item(long id, String name, String description, boolean available) {
+        return Item.builder().id(id).name(name).description(description).available(available).build();
+    }
+}
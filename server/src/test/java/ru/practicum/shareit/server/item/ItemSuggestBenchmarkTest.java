@@ -0,0 +1,95 @@
+package ru.practicum.shareit.server.item;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.server.Latencies;
+import ru.practicum.shareit.server.user.UserService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static ru.practicum.shareit.server.TestFixtures.createUser;
+
+// Задержка подсказок названий на миллионе вещей, цель - p99 меньше миллисекунды:
+// mvn -Pbenchmark test -pl server -Dtest=ItemSuggestBenchmarkTest [-Dbenchmark.items=...]
+@Tag("benchmark")
+@ActiveProfiles({"test", "benchmark"})
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:item-suggest-benchmark;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+@Slf4j
+class ItemSuggestBenchmarkTest {
+    private static final int PREFIXES = 10_000;
+    private static final int WARMUP = 10_000;
+    private static final int ENDPOINT_WARMUP = 2_000;
+    private static final int LIMIT = 10;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ItemSearchIndex itemSearchIndex;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private MockMvc mvc;
+
+    @Test
+    void suggestP99UnderMillisecond() throws Exception {
+        BenchmarkCatalog catalog = new BenchmarkCatalog();
+        long userId = createUser(userService, "benchmark-owner").getId();
+        catalog.insertItems(jdbcTemplate, userId);
+        itemSearchIndex.rebuild();
+
+        // Префиксы, которые набирает пользователь: первые 1-6 букв случайного слова каталога
+        Random random = new Random(7);
+        List<String> prefixes = new ArrayList<>(PREFIXES);
+        for (int i = 0; i < PREFIXES; i++) {
+            String word = catalog.word(random.nextInt(BenchmarkCatalog.WORDS));
+            prefixes.add(word.substring(0, 1 + random.nextInt(Math.min(6, word.length()))));
+        }
+        for (int i = 0; i < WARMUP; i++) {
+            itemSearchIndex.suggest(prefixes.get(i % PREFIXES), LIMIT);
+        }
+
+        Latencies index = new Latencies(PREFIXES);
+        int suggested = 0;
+        for (String prefix : prefixes) {
+            suggested += index.measure(() -> itemSearchIndex.suggest(prefix, LIMIT)).size();
+        }
+        assertThat(suggested).isPositive();
+
+        for (int i = 0; i < ENDPOINT_WARMUP; i++) {
+            perform(prefixes.get(i % PREFIXES), userId);
+        }
+        Latencies endpoint = new Latencies(PREFIXES);
+        for (String prefix : prefixes) {
+            MvcResult result = endpoint.measure(() -> perform(prefix, userId));
+            assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        }
+
+        log.info("Подсказки на {} вещах: индекс {}; GET /items/suggest через MockMvc {}",
+                BenchmarkCatalog.ITEMS, index.summary(), endpoint.summary());
+        assertThat(index.percentileMillis(99)).isLessThan(1.0);
+    }
+
+    private MvcResult perform(String prefix, long userId) {
+        try {
+            return mvc.perform(get("/items/suggest")
+                    .param("prefix", prefix)
+                    .param("size", String.valueOf(LIMIT))
+                    .header("X-Sharer-User-Id", userId)).andReturn();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
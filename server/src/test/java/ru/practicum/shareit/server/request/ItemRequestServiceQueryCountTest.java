@@ -0,0 +1,89 @@
+package ru.practicum.shareit.server.request;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.server.item.Item;
+import ru.practicum.shareit.server.item.ItemRepository;
+import ru.practicum.shareit.server.request.dto.ItemRequestDto;
+import ru.practicum.shareit.server.user.User;
+import ru.practicum.shareit.server.user.UserRepository;
+import ru.practicum.shareit.server.user.UserService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static ru.practicum.shareit.server.TestFixtures.createUser;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ItemRequestServiceQueryCountTest {
+
+    @Autowired
+    private ItemRequestService itemRequestService;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void userRequestsStatementCountDoesNotGrowWithRequests() {
+        User owner = user();
+        User fewRequests = requestorWith(owner, 5);
+        User manyRequests = requestorWith(owner, 50);
+
+        long fewStatements = statementsFor(fewRequests, 5);
+        long manyStatements = statementsFor(manyRequests, 50);
+
+        // Проверка пользователя, список запросов и все вещи-ответы одним запросом
+        assertThat(manyStatements).isEqualTo(fewStatements).isLessThanOrEqualTo(3);
+    }
+
+    private long statementsFor(User requestor, int expectedRequests) {
+        // Первый вызов прогревает кэш существования пользователя
+        itemRequestService.getUserRequests(requestor.getId());
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<ItemRequestDto> requests = itemRequestService.getUserRequests(requestor.getId());
+
+        long statements = statistics.getPrepareStatementCount();
+        assertThat(requests).hasSize(expectedRequests)
+                .allSatisfy(request -> assertThat(request.getItems()).hasSize(1));
+        return statements;
+    }
+
+    private User requestorWith(User owner, int requestCount) {
+        User requestor = user();
+        LocalDateTime created = LocalDateTime.now();
+        for (int i = 0; i < requestCount; i++) {
+            ItemRequest request = itemRequestRepository.save(ItemRequest.builder()
+                    .description("Need a drill " + i)
+                    .requestor(requestor)
+                    .created(created.minusMinutes(i))
+                    .build());
+            itemRepository.save(Item.builder()
+                    .name("Drill " + i)
+                    .description("Cordless drill")
+                    .available(true)
+                    .owner(owner)
+                    .request(request)
+                    .build());
+        }
+        return requestor;
+    }
+
+    // Через сервис, чтобы пользователь попал в кэш существования
+    private User user() {
+        return userRepository.findById(createUser(userService, "requestor").getId()).orElseThrow();
+    }
+}
@@ -0,0 +1,87 @@
+package ru.practicum.shareit.server.request;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.server.request.dto.ItemRequestDto;
+import ru.practicum.shareit.server.user.UserService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static ru.practicum.shareit.server.TestFixtures.createUser;
+import static ru.practicum.shareit.server.TestFixtures.sseDropped;
+import static ru.practicum.shareit.server.TestFixtures.sseSubscribers;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// Тысячи простаивающих подписчиков потока запросов получают новый запрос один раз и без отключений
+@SpringBootTest
+@AutoConfigureMockMvc
+class ItemRequestStreamLoadTest {
+    private static final int USERS = 50;
+    private static final int SUBSCRIPTIONS_PER_USER = 100;
+    private static final String HUB = "requests";
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemRequestService itemRequestService;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void thousandsOfIdleSubscribersReceiveNewRequest() throws Exception {
+        double subscribersBefore = sseSubscribers(meterRegistry, HUB);
+        double droppedBefore = sseDropped(meterRegistry, HUB);
+        List<MockHttpServletResponse> streams = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            Long userId = createUser(userService, "stream-subscriber").getId();
+            for (int j = 0; j < SUBSCRIPTIONS_PER_USER; j++) {
+                MvcResult result = mvc.perform(get("/requests/stream").header("X-Sharer-User-Id", userId))
+                        .andReturn();
+                assertThat(result.getRequest().isAsyncStarted()).isTrue();
+                streams.add(result.getResponse());
+            }
+        }
+        int total = USERS * SUBSCRIPTIONS_PER_USER;
+        assertThat(sseSubscribers(meterRegistry, HUB) - subscribersBefore).isEqualTo(total);
+
+        long started = System.nanoTime();
+        ItemRequestDto request = itemRequestService.createRequest(
+                ItemRequestDto.builder().description("Need a ladder for streaming").build(),
+                createUser(userService, "stream-author").getId());
+
+        String eventId = "id:" + request.getId() + "\n";
+        long deadline = started + TimeUnit.SECONDS.toNanos(10);
+        int delivered = 0;
+        while (delivered < total && System.nanoTime() < deadline) {
+            delivered = 0;
+            for (MockHttpServletResponse stream : streams) {
+                if (stream.getContentAsString().contains(eventId)) {
+                    delivered++;
+                }
+            }
+            if (delivered < total) {
+                Thread.sleep(50);
+            }
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        assertThat(delivered).as("доставлено за %d мс", elapsedMillis).isEqualTo(total);
+        for (MockHttpServletResponse stream : streams) {
+            String content = stream.getContentAsString();
+            assertThat(content.indexOf(eventId)).isEqualTo(content.lastIndexOf(eventId));
+        }
+        assertThat(sseDropped(meterRegistry, HUB)).isEqualTo(droppedBefore);
+        assertThat(sseSubscribers(meterRegistry, HUB) - subscribersBefore).isEqualTo(total);
+    }
+}
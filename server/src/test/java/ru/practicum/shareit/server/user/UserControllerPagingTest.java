@@ -0,0 +1,95 @@
+package ru.practicum.shareit.server.user;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import ru.practicum.shareit.server.common.Cursors;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.practicum.shareit.server.TestFixtures.createUser;
+
+// Без параметров GET /users отдаёт весь список, как до постраничного режима; страницы проходятся по X-Next-Cursor
+@SpringBootTest
+@AutoConfigureMockMvc
+class UserControllerPagingTest {
+    private static final int USERS = 150;
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void withoutPagingParametersReturnsAllUsers() throws Exception {
+        Set<Long> created = createUsers();
+
+        MvcResult result = mvc.perform(get("/users")).andExpect(status().isOk()).andReturn();
+
+        assertThat(result.getResponse().getHeader("X-Next-Cursor")).isNull();
+        assertThat(ids(perform(asyncDispatch(result)))).containsAll(created);
+    }
+
+    @Test
+    void cursorWalksAllPages() throws Exception {
+        Set<Long> created = createUsers();
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            MvcResult page = cursor == null
+                    ? perform(get("/users").param("size", "40"))
+                    : perform(get("/users").param("size", "40").param("cursor", cursor));
+            List<Long> ids = ids(page);
+            assertThat(ids.size()).isLessThanOrEqualTo(40);
+            seen.addAll(ids);
+            cursor = page.getResponse().getHeader("X-Next-Cursor");
+            if (cursor != null) {
+                assertThat(cursor).isEqualTo(Cursors.encode(String.valueOf(ids.getLast())));
+            }
+        } while (cursor != null);
+
+        assertThat(seen).doesNotHaveDuplicates().isSorted().containsAll(created);
+    }
+
+    @Test
+    void malformedCursorIsRejected() throws Exception {
+        mvc.perform(get("/users").param("cursor", "not a cursor")).andExpect(status().isBadRequest());
+        mvc.perform(get("/users").param("cursor", Cursors.encode("abc"))).andExpect(status().isBadRequest());
+    }
+
+    private Set<Long> createUsers() {
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < USERS; i++) {
+            ids.add(createUser(userService, "paging").getId());
+        }
+        return ids;
+    }
+
+    private MvcResult perform(RequestBuilder request) throws Exception {
+        return mvc.perform(request).andExpect(status().isOk()).andReturn();
+    }
+
+    private List<Long> ids(MvcResult result) throws Exception {
+        JsonNode users = objectMapper.readTree(result.getResponse().getContentAsString());
+        assertThat(users.isArray()).isTrue();
+        List<Long> ids = new ArrayList<>();
+        users.forEach(user -> ids.add(user.get("id").asLong()));
+        return ids;
+    }
+}
@@ -0,0 +1,61 @@
+package ru.practicum.shareit.server.user;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.server.booking.BookingService;
+import ru.practicum.shareit.server.booking.State;
+import ru.practicum.shareit.server.exceptions.NotFoundException;
+import ru.practicum.shareit.server.item.ItemService;
+import ru.practicum.shareit.server.request.ItemRequestService;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static ru.practicum.shareit.server.TestFixtures.uniqueEmail;
+
+// Пользователь, сохранённый в обход UserService (как другим экземпляром сервера), виден проверкам сразу
+@SpringBootTest
+class UserExistenceCacheTest {
+
+    @Autowired
+    private UserExistenceCache userExistenceCache;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRequestService itemRequestService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private ItemService itemService;
+
+    @BeforeEach
+    void waitForFilter() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!userExistenceCache.isReady() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(userExistenceCache.isReady()).isTrue();
+    }
+
+    @Test
+    void userSavedThroughRepositoryPassesGuardedCalls() {
+        Long userId = userRepository.save(User.builder()
+                .name("elsewhere")
+                .email(uniqueEmail("elsewhere"))
+                .build()).getId();
+
+        assertThat(itemRequestService.getUserRequests(userId)).isEmpty();
+        assertThat(bookingService.getUserBookings(userId, State.ALL, 0, 10, null)).isEmpty();
+        assertThat(itemService.getItemsByOwner(userId)).isEmpty();
+    }
+
+    @Test
+    void unknownUserIsStillRejected() {
+        assertThat(userExistenceCache.exists(0L)).isFalse();
+        assertThatThrownBy(() -> itemRequestService.getUserRequests(Long.MAX_VALUE))
+                .isInstanceOf(NotFoundException.class);
+    }
+}